@@ -0,0 +1,124 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import com.fasterxml.jackson.jr.ob.JSON;
+import com.fasterxml.jackson.jr.ob.JSONComposer;
+import com.fasterxml.jackson.jr.ob.comp.ArrayComposer;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the GitLab report with the previous implementation, which
+ * pretty-printed the report and copied several arrays to calculate the
+ * fingerprint of every issue.
+ * <p>
+ * Run it with {@code mvn -P benchmark test-compile exec:exec}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class GitLabReportBenchmark {
+
+    private static final int ISSUES = 500_000;
+    private static final int FILES = 5_000;
+
+    private static final Map<Issue.Severity, String> SEVERITIES = Map.of(
+        Issue.Severity.HIGHEST, "blocker",
+        Issue.Severity.HIGH, "critical",
+        Issue.Severity.MEDIUM, "major",
+        Issue.Severity.LOW, "minor",
+        Issue.Severity.LOWEST, "minor",
+        Issue.Severity.IGNORE, "info"
+    );
+
+    private Path baseDir;
+    private Path reportFile;
+    private Inspection inspection;
+
+    @Setup
+    public void setUp() throws IOException {
+        baseDir = Files.createTempDirectory("gitlab-report-benchmark");
+        reportFile = baseDir.resolve("report.gitlab.json");
+        final Random random = new Random(42);
+        final Issue.Severity[] severities = Issue.Severity.values();
+        final IssueStore.Builder issues = new IssueStore.Builder();
+        for (int i = 0; i < ISSUES; i++) {
+            final Path file = baseDir.resolve("src/main/java/ch/acanda/File" + i % FILES + ".java");
+            final String rule = "Rule" + random.nextInt(200);
+            issues.add(file, random.nextInt(2000) + 1, random.nextInt(120), rule,
+                "Description of " + rule + " number " + i, severities[random.nextInt(severities.length)]);
+        }
+        inspection = new StubInspection("PMD", issues.build(), new MavenProject());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(reportFile);
+        Files.deleteIfExists(baseDir);
+    }
+
+    @Benchmark
+    public void gitLabReport() throws MojoFailureException {
+        new GitLabReport(baseDir, inspection).writeTo(reportFile);
+    }
+
+    @Benchmark
+    public void previousGitLabReport() throws IOException {
+        final ArrayComposer<JSONComposer<OutputStream>> json =
+            JSON.std.with(JSON.Feature.PRETTY_PRINT_OUTPUT).composeTo(reportFile.toFile()).startArray();
+        for (final Issue issue : inspection.issues()) {
+            final String description =
+                format(Locale.ENGLISH, "%s [%s]: %s", inspection.toolName(), issue.name(), issue.description());
+            final String path = baseDir.relativize(issue.file()).toString().replace('\\', '/');
+            final byte[] bytes = ArrayUtils.addAll(ArrayUtils.addAll(
+                    issue.name().getBytes(StandardCharsets.UTF_8),
+                    path.getBytes(StandardCharsets.UTF_8)),
+                ByteBuffer.allocate(Integer.BYTES * 2).putInt(issue.line()).putInt(issue.column()).array());
+            json.startObject()
+                .put("description", description)
+                .put("fingerprint", UUID.nameUUIDFromBytes(bytes).toString())
+                .put("severity", SEVERITIES.get(issue.severity()))
+                .startObjectField("location")
+                .put("path", path)
+                .startObjectField("lines")
+                .put("begin", issue.line())
+                .end()
+                .end()
+                .end();
+        }
+        json.end().finish().close();
+    }
+
+}
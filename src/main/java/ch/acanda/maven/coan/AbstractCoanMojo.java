@@ -1,11 +1,18 @@
 package ch.acanda.maven.coan;
 
+import ch.acanda.maven.coan.baseline.Baseline;
+import ch.acanda.maven.coan.cache.ResultCache;
+import ch.acanda.maven.coan.cache.SourceContents;
 import ch.acanda.maven.coan.checkstyle.CheckstyleConfig;
 import ch.acanda.maven.coan.pmd.PmdConfig;
 import ch.acanda.maven.coan.report.BitBucketReport;
 import ch.acanda.maven.coan.report.GitHubReport;
 import ch.acanda.maven.coan.report.GitLabReport;
 import ch.acanda.maven.coan.report.HtmlReport;
+import ch.acanda.maven.coan.report.IssueIndex;
+import ch.acanda.maven.coan.report.JsonLinesReport;
+import ch.acanda.maven.coan.report.PagedHtmlReport;
+import ch.acanda.maven.coan.report.VirtualHtmlReport;
 import ch.acanda.maven.coan.report.bitbucket.Pipeline;
 import ch.acanda.maven.coan.version.Versions;
 import lombok.AccessLevel;
@@ -16,21 +23,39 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
 
 abstract class AbstractCoanMojo extends AbstractMojo {
 
     private static final String REPORT_FORMAT_HTML = "html";
+    private static final String REPORT_FORMAT_HTML_PAGED = "html-paged";
+    private static final String REPORT_FORMAT_HTML_VIRTUAL = "html-virtual";
     private static final String REPORT_FORMAT_GITLAB = "gitlab";
     private static final String REPORT_FORMAT_GITHUB = "github";
+    private static final String REPORT_FORMAT_JSON_LINES = "jsonl";
     private static final String DEFAULT_SKIP = "false";
     private static final String DEFAULT_FAIL_ON_ISSUES = "true";
     private static final String DEFAULT_TARGET_PATH = "${project.build.directory}/code-analysis";
     private static final String DEFAULT_PMD_CONFIG_PATH = "config/pmd.xml";
+    private static final String DEFAULT_PMD_THREADS = ThreadCount.AUTO;
     private static final String DEFAULT_CHECKSTYLE_CONFIG_PATH = "config/checkstyle.xml";
+    private static final String DEFAULT_CHECKSTYLE_THREADS = "1";
     private static final String DEFAULT_REPORT_FORMATS = REPORT_FORMAT_HTML;
+    private static final String DEFAULT_CACHE_MAX_SIZE = "100M";
 
     @Parameter(defaultValue = "${project}")
     @Getter(AccessLevel.PROTECTED)
@@ -53,14 +78,64 @@ abstract class AbstractCoanMojo extends AbstractMojo {
     @Getter(AccessLevel.PROTECTED)
     private String pmdConfigPath;
 
+    @Parameter(property = "coan.pmd.threads", required = true, defaultValue = DEFAULT_PMD_THREADS)
+    @Getter(AccessLevel.PROTECTED)
+    private String pmdThreads;
+
+    @Parameter(property = "coan.pmd.cacheIgnoresOutputDirectories", required = true, defaultValue = "false")
+    @Getter(AccessLevel.PROTECTED)
+    private boolean pmdCacheIgnoresOutputDirectories;
+
     @Parameter(property = "coan.checkstyle.configPath", required = true, defaultValue = DEFAULT_CHECKSTYLE_CONFIG_PATH)
     @Getter(AccessLevel.PROTECTED)
     private String checkstyleConfigPath;
 
+    @Parameter(property = "coan.checkstyle.threads", required = true, defaultValue = DEFAULT_CHECKSTYLE_THREADS)
+    @Getter(AccessLevel.PROTECTED)
+    private String checkstyleThreads;
+
+    @Parameter(property = "coan.cacheDirectory")
+    @Getter(AccessLevel.PROTECTED)
+    private String cacheDirectory;
+
+    @Parameter(property = "coan.cache.maxSize", required = true, defaultValue = DEFAULT_CACHE_MAX_SIZE)
+    @Getter(AccessLevel.PROTECTED)
+    private String cacheMaxSize;
+
+    @Parameter(property = "coan.changedSince")
+    @Getter(AccessLevel.PROTECTED)
+    private String changedSince;
+
+    @Parameter(property = "coan.baselinePath")
+    @Getter(AccessLevel.PROTECTED)
+    private String baselinePath;
+
+    @Parameter(property = "coan.includes")
+    @Getter(AccessLevel.PROTECTED)
+    private List<String> includes;
+
+    @Parameter(property = "coan.excludes")
+    @Getter(AccessLevel.PROTECTED)
+    private List<String> excludes;
+
     @Parameter(property = "coan.report.formats", required = true, defaultValue = DEFAULT_REPORT_FORMATS)
     @Getter(AccessLevel.PROTECTED)
     private Set<String> reportFormats;
 
+    private ResultCache resultCache;
+
+    /** The contents of the source files, shared by the result cache and PMD. */
+    private final SourceContents sourceContents = new SourceContents();
+
+    @Getter(AccessLevel.PROTECTED)
+    private SourceFiles sourceFileFinder;
+
+    /** The source files of every project, discovered once for all inspectors of the project. */
+    private final Map<MavenProject, List<Path>> sourceFilesByProject = new ConcurrentHashMap<>();
+
+    /** The files that changed since {@link #changedSince} or null to analyse all files. */
+    private ChangedFiles changedFiles;
+
     @Override
     public final void execute() throws MojoFailureException {
         if (skip) {
@@ -69,59 +144,310 @@ abstract class AbstractCoanMojo extends AbstractMojo {
         }
         getLog().info("PMD " + Versions.getPmdVersion());
         getLog().info("Checkstyle " + Versions.getCheckstyleVersion());
-        analyseCode();
+        final long maxSize = ByteSize.parse("coan.cache.maxSize", getCacheMaxSize());
+        resultCache = new ResultCache(getCacheDirectoryPath(), getRootDirectory(), maxSize, sourceContents, getLog());
+        sourceFileFinder = new SourceFiles(includes, excludes);
+        final String revision = getChangedSince();
+        if (revision != null && !revision.isBlank()) {
+            changedFiles = ChangedFiles.since(revision.trim(), getProject().getBasedir().toPath(), getLog());
+        }
+        try {
+            analyseCode();
+        } finally {
+            resultCache.evict();
+        }
     }
 
     protected abstract void analyseCode() throws MojoFailureException;
 
-    protected PmdConfig assemblePmdConfig(final MavenProject project) {
-        return new PmdConfig(project, getLog(), getPmdConfigPath(), getTargetPath());
+    /**
+     * Returns the directory of the result cache. A leading {@code ~} is
+     * replaced with the home directory of the user, and a relative path is
+     * resolved against the base directory of the project.
+     */
+    private Path getCacheDirectoryPath() {
+        final String directory = getCacheDirectory();
+        if (directory == null || directory.isBlank()) {
+            return Paths.get(getTargetPath()).resolve("results");
+        }
+        if (directory.equals("~") || directory.startsWith("~/") || directory.startsWith("~\\")) {
+            return Paths.get(System.getProperty("user.home"), directory.substring(1));
+        }
+        return getProject().getBasedir().toPath().resolve(directory);
+    }
+
+    /**
+     * Returns the base directory of the outermost parent of the project that
+     * is part of the checkout, so all modules of a reactor relativize the
+     * paths of their files against the same directory.
+     */
+    private Path getRootDirectory() {
+        MavenProject root = getProject();
+        while (root.getParent() != null && root.getParent().getBasedir() != null) {
+            root = root.getParent();
+        }
+        return root.getBasedir().toPath();
+    }
+
+    protected boolean isResultCacheEnabled() {
+        return resultCache.isEnabled();
+    }
+
+    protected boolean isChangedSinceSet() {
+        return changedFiles != null;
+    }
+
+    /**
+     * Returns {@code false} if only the changed files are analysed and none of
+     * the source files of the project changed.
+     */
+    protected boolean hasChanges(final MavenProject project) {
+        return changedFiles == null || changedFiles.affects(project);
+    }
+
+    private Predicate<Path> getFileFilter() {
+        return changedFiles == null ? file -> true : changedFiles::contains;
+    }
+
+    /**
+     * Returns the source files of the project that match the include and
+     * exclude patterns and, if {@code coan.changedSince} is set, that
+     * changed. The source directories are only walked the first time the
+     * files of a project are requested.
+     */
+    protected List<Path> getSourceFiles(final MavenProject project) throws MojoFailureException {
+        try {
+            return sourceFilesByProject.computeIfAbsent(project,
+                p -> sourceFileFinder.find(p).stream().filter(getFileFilter()).toList());
+        } catch (final UncheckedIOException e) {
+            throw new MojoFailureException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Discards the source files of the project, so they are discovered
+     * again the next time they are requested.
+     */
+    protected void forgetSourceFiles(final MavenProject project) {
+        sourceFilesByProject.remove(project);
     }
 
-    protected CheckstyleConfig assembleCheckstyleConfig(final MavenProject project) {
-        return new CheckstyleConfig(project, getLog(), getCheckstyleConfigPath(), getTargetPath());
+    /**
+     * Removes the issues that are in the baseline, if there is one. The
+     * baseline is resolved like a configuration file, so the modules of a
+     * project can share the baseline of their parent project.
+     */
+    protected List<Inspection> applyBaseline(final List<Inspection> inspections) throws MojoFailureException {
+        return applyBaseline(new ArrayList<>(inspections), (inspection, filtered) -> filtered);
+    }
+
+    /**
+     * Removes the issues that are in the baseline like
+     * {@link #applyBaseline(List)}, but replaces the inspections in the
+     * modifiable list one after the other with the inspection that
+     * {@code keep} returns for an inspection and its filtered inspection. The
+     * unfiltered and filtered issues of all inspections therefore do not have
+     * to be in memory at the same time.
+     */
+    protected List<Inspection> applyBaseline(final List<Inspection> inspections,
+        final BinaryOperator<Inspection> keep) throws MojoFailureException {
+        final Path baselineFile = getBaselineFile();
+        if (baselineFile == null) {
+            return inspections;
+        }
+        final int ignored = Baseline.load(baselineFile).replaceAll(inspections, keep);
+        getLog().info("Ignoring " + ignored + (ignored == 1 ? " issue" : " issues")
+                      + " that are listed in the baseline " + baselineFile + ".");
+        return inspections;
     }
 
+    /**
+     * Returns the baseline, or {@code null} if there is none.
+     */
+    protected Baseline loadBaseline() throws MojoFailureException {
+        final Path baselineFile = getBaselineFile();
+        return baselineFile == null ? null : Baseline.load(baselineFile);
+    }
+
+    private Path getBaselineFile() throws MojoFailureException {
+        if (getBaselinePath() == null || getBaselinePath().isBlank()) {
+            return null;
+        }
+        return Configs.resolve("baseline", getBaselinePath(), getProject(), getLog());
+    }
+
+    /**
+     * @param concurrentAnalyses
+     *     The maximum number of PMD analyses that run at the same time. This
+     *     is used to divide the available cores between the analyses if the
+     *     number of PMD threads is {@value ThreadCount#AUTO}.
+     */
+    protected PmdConfig assemblePmdConfig(final MavenProject project, final int concurrentAnalyses)
+        throws MojoFailureException {
+        return assemblePmdConfig(project, concurrentAnalyses, file -> true);
+    }
+
+    /**
+     * @param fileFilter
+     *     Restricts the analysis to the source files that match the filter.
+     */
+    protected PmdConfig assemblePmdConfig(final MavenProject project, final int concurrentAnalyses,
+        final Predicate<Path> fileFilter) throws MojoFailureException {
+        final int threads = ThreadCount.parse("coan.pmd.threads", getPmdThreads(), concurrentAnalyses);
+        final List<Path> files = getSourceFiles(project).stream().filter(fileFilter).toList();
+        return new PmdConfig(
+            project, getLog(), getPmdConfigPath(), getTargetPath(), threads, resultCache,
+            isPmdCacheIgnoresOutputDirectories(), sourceContents, files
+        );
+    }
+
+    protected CheckstyleConfig assembleCheckstyleConfig(final MavenProject project) throws MojoFailureException {
+        return assembleCheckstyleConfig(project, file -> true);
+    }
+
+    protected CheckstyleConfig assembleCheckstyleConfig(final MavenProject project,
+        final Predicate<Path> fileFilter) throws MojoFailureException {
+        final int threads = ThreadCount.parse("coan.checkstyle.threads", getCheckstyleThreads());
+        final List<Path> files = getSourceFiles(project).stream().filter(fileFilter).toList();
+        return new CheckstyleConfig(
+            project, getLog(), getCheckstyleConfigPath(), getTargetPath(), threads, resultCache, files
+        );
+    }
+
+    /**
+     * Creates all requested reports. The issues are indexed once for all
+     * reports and the reports are written concurrently.
+     */
     protected void createReports(final Inspection... inspections) throws MojoFailureException {
         final Path baseDir = getProject().getBasedir().toPath();
         final Path targetDir = Paths.get(getTargetPath());
+        // The goal "watch" creates the reports again after every analysis.
+        final Set<String> formats = new HashSet<>(reportFormats);
+        final boolean html = formats.remove(REPORT_FORMAT_HTML);
+        final boolean pagedHtml = formats.remove(REPORT_FORMAT_HTML_PAGED);
+        final boolean virtualHtml = formats.remove(REPORT_FORMAT_HTML_VIRTUAL);
+        final boolean gitLab = formats.remove(REPORT_FORMAT_GITLAB);
+        final boolean gitHub = formats.remove(REPORT_FORMAT_GITHUB);
+        final boolean jsonLines = formats.remove(REPORT_FORMAT_JSON_LINES);
+        if (!formats.isEmpty()) {
+            final String invalidFormats = String.join(", ", formats);
+            getLog().warn("The following report formats are invalid and are ignored: " + invalidFormats);
+        }
+
+        final IssueIndex index = IssueIndex.of(inspections);
+        final List<ReportWriter> writers = new ArrayList<>();
         final String gitHubStepSummary = getGithubStepSummary();
-        if (gitHubStepSummary != null) {
-            final GitHubReport report = new GitHubReport(getProject(), baseDir, inspections);
-            final Path reportFile = Paths.get(gitHubStepSummary);
-            report.appendTo(reportFile);
-            getLog().info("The GitHub Code Quality report was appended to the GitHub step summary file " + reportFile);
+        if (gitHub || gitHubStepSummary != null) {
+            writers.add(() -> createGitHubReport(index, baseDir, targetDir, gitHub, gitHubStepSummary));
         }
         final Pipeline bitBucketPipeline = getBitbucketPipeline();
         if (bitBucketPipeline != null) {
-            final BitBucketReport report = new BitBucketReport(baseDir, inspections);
-            report.publishToBitBucket(bitBucketPipeline);
-            getLog().info("Published report to Bitbucket");
+            writers.add(() -> {
+                final BitBucketReport report = new BitBucketReport(baseDir, index);
+                report.publishToBitBucket(bitBucketPipeline);
+                getLog().info("Published report to Bitbucket");
+            });
         }
-        if (reportFormats.remove(REPORT_FORMAT_HTML)) {
-            final HtmlReport report = new HtmlReport(getProject(), baseDir, inspections);
-            final Path reportFile = targetDir.resolve("report.html");
-            report.writeTo(reportFile);
-            getLog().info("The HTML report is available at " + reportFile);
+        if (html) {
+            writers.add(() -> {
+                final HtmlReport report = new HtmlReport(getProject(), baseDir, index);
+                final Path reportFile = targetDir.resolve("report.html");
+                report.writeTo(reportFile);
+                getLog().info("The HTML report is available at " + reportFile);
+            });
         }
-        if (reportFormats.remove(REPORT_FORMAT_GITLAB)) {
-            final GitLabReport report = new GitLabReport(baseDir, inspections);
-            final Path reportFile = targetDir.resolve("report.gitlab.json");
-            report.writeTo(reportFile);
-            getLog().info("The GitLab Code Quality report is available at " + reportFile);
+        if (pagedHtml) {
+            writers.add(() -> {
+                final PagedHtmlReport report = new PagedHtmlReport(getProject(), baseDir, index);
+                final Path indexPage = report.writeTo(targetDir.resolve("report"));
+                getLog().info("The paged HTML report is available at " + indexPage);
+            });
+        }
+        if (virtualHtml) {
+            writers.add(() -> {
+                final VirtualHtmlReport report = new VirtualHtmlReport(getProject(), baseDir, index);
+                final Path reportFile = targetDir.resolve("report.virtual.html");
+                report.writeTo(reportFile);
+                getLog().info("The virtual HTML report is available at " + reportFile);
+            });
+        }
+        if (gitLab) {
+            writers.add(() -> {
+                final GitLabReport report = new GitLabReport(baseDir, index);
+                final Path reportFile = targetDir.resolve("report.gitlab.json");
+                report.writeTo(reportFile);
+                getLog().info("The GitLab Code Quality report is available at " + reportFile);
+            });
         }
-        if (reportFormats.remove(REPORT_FORMAT_GITHUB)) {
-            final GitHubReport report = new GitHubReport(getProject(), baseDir, inspections);
-            final Path reportFile = targetDir.resolve("report.github.md");
+        if (jsonLines) {
+            writers.add(() -> {
+                final JsonLinesReport report = new JsonLinesReport(baseDir, index);
+                final Path reportFile = targetDir.resolve("report.jsonl");
+                report.writeTo(reportFile);
+                getLog().info("The JSON Lines report is available at " + reportFile);
+            });
+        }
+        writeConcurrently(writers);
+    }
+
+    /**
+     * Creates the GitHub report only once, even if it is written to a file
+     * and appended to the step summary.
+     */
+    private void createGitHubReport(final IssueIndex index, final Path baseDir, final Path targetDir,
+        final boolean writeFile, final String stepSummary) throws MojoFailureException {
+        final GitHubReport report = new GitHubReport(getProject(), baseDir, index);
+        final Path reportFile = targetDir.resolve("report.github.md");
+        final Path summaryFile = stepSummary == null ? null : Paths.get(stepSummary);
+        if (writeFile && summaryFile != null) {
+            report.writeTo(reportFile, summaryFile);
+        } else if (writeFile) {
             report.writeTo(reportFile);
+        } else {
+            report.appendTo(summaryFile);
+        }
+        if (summaryFile != null) {
+            getLog().info("The GitHub Code Quality report was appended to the GitHub step summary file " + summaryFile);
+        }
+        if (writeFile) {
             getLog().info("The GitHub Code Quality report is available at " + reportFile);
         }
-        if (!reportFormats.isEmpty()) {
-            final String invalidFormats = String.join(", ", reportFormats);
-            getLog().warn("The following report formats are invalid and are ignored: " + invalidFormats);
+    }
+
+    private static void writeConcurrently(final List<ReportWriter> writers) throws MojoFailureException {
+        if (writers.size() < 2) {
+            for (final ReportWriter writer : writers) {
+                writer.write();
+            }
+            return;
+        }
+        try (ExecutorService executorService = Executors.newFixedThreadPool(writers.size())) {
+            final List<Future<Void>> results = new ArrayList<>(writers.size());
+            for (final ReportWriter writer : writers) {
+                results.add(executorService.submit(() -> {
+                    writer.write();
+                    return null;
+                }));
+            }
+            for (final Future<Void> result : results) {
+                result.get();
+            }
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof MojoFailureException failure) {
+                throw failure;
+            }
+            throw new MojoFailureException(e.getCause().getMessage(), e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException(e.getMessage(), e);
         }
     }
 
+    @FunctionalInterface
+    private interface ReportWriter {
+        void write() throws MojoFailureException;
+    }
+
     private String getGithubStepSummary() {
         return getPropertyOrEnv("GITHUB_STEP_SUMMARY");
     }
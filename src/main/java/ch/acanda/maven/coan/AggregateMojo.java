@@ -1,55 +1,178 @@
 package ch.acanda.maven.coan;
 
+import ch.acanda.maven.coan.baseline.Baseline;
+import ch.acanda.maven.coan.cache.IssueSpill;
+import ch.acanda.maven.coan.cache.StoredInspections;
 import ch.acanda.maven.coan.checkstyle.CheckstyleInspector;
+import ch.acanda.maven.coan.pmd.PmdConfig;
 import ch.acanda.maven.coan.pmd.PmdInspector;
+import ch.acanda.maven.coan.pmd.PmdReactorInspector;
 import ch.acanda.maven.coan.report.LogReport;
+import ch.acanda.maven.coan.version.Versions;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.stream.Stream;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import static java.util.stream.Collectors.joining;
 
 @Mojo(name = "aggregate", aggregator = true, threadSafe = true)
 public class AggregateMojo extends AbstractCoanMojo {
 
+    private static final String DEFAULT_THREADS = "1C";
+    private static final String DEFAULT_PMD_REACTOR_ANALYSIS = "false";
+    private static final String DEFAULT_FAIL_FAST = "false";
+    private static final String DEFAULT_FAIL_FAST_SEVERITY = "ignore";
+    private static final String DEFAULT_SPILL_THRESHOLD = "1000000";
+    private static final Duration TIMEOUT = Duration.ofHours(1);
+
     @Parameter(property = "reactorProjects", readonly = true, required = true)
     private List<MavenProject> reactorProjects;
 
-    @Override
-    protected void analyseCode() throws MojoFailureException {
+    @Parameter(property = "coan.threads", required = true, defaultValue = DEFAULT_THREADS)
+    private String threads;
 
-        logReactorProjects();
+    @Parameter(property = "coan.pmd.reactorAnalysis", required = true, defaultValue = DEFAULT_PMD_REACTOR_ANALYSIS)
+    private boolean pmdReactorAnalysis;
 
-        final List<Callable<Inspection>> analysers = reactorProjects.stream()
-            .flatMap(reactorProject -> Stream.<Callable<Inspection>>of(
-                () -> new PmdInspector(assemblePmdConfig(reactorProject)).inspect(),
-                () -> new CheckstyleInspector(assembleCheckstyleConfig(reactorProject)).inspect()
-            ))
-            .toList();
+    @Parameter(property = "coan.failFast", required = true, defaultValue = DEFAULT_FAIL_FAST)
+    private boolean failFast;
 
-        try (ExecutorService executorService = Executors.newFixedThreadPool(analysers.size())) {
-            final List<Future<Inspection>> runningInspections = executorService.invokeAll(analysers, 1, TimeUnit.HOURS);
-            final List<Inspection> inspections = runningInspections.stream()
-                .map(AggregateMojo::waitUntilFinished)
-                .toList();
+    @Parameter(property = "coan.failFast.severity", required = true, defaultValue = DEFAULT_FAIL_FAST_SEVERITY)
+    private String failFastSeverity;
 
+    @Parameter(property = "coan.spillThreshold", required = true, defaultValue = DEFAULT_SPILL_THRESHOLD)
+    private long spillThreshold;
+
+    private final ModuleFingerprints fingerprints = new ModuleFingerprints();
+
+    @Override
+    protected void analyseCode() throws MojoFailureException {
+        final Path spillDirectory = Paths.get(getTargetPath()).resolve("spill");
+        try (IssueSpill spill = new IssueSpill(spillDirectory, spillThreshold, getLog())) {
+            final List<Inspection> inspections =
+                applyBaseline(new ArrayList<>(inspect(getStopCondition(), spill::keep)), spill::replace);
             inspections.forEach(inspection ->
                 LogReport.report(inspection, getProject().getBasedir().toPath(), getLog())
             );
             createReports(inspections.toArray(Inspection[]::new));
             failOnIssues(inspections);
+        } catch (final UncheckedIOException e) {
+            throw new MojoFailureException(e.getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Runs the PMD and Checkstyle inspections of all reactor projects.
+     */
+    protected List<Inspection> inspect() throws MojoFailureException {
+        return inspect(inspections -> false, UnaryOperator.identity());
+    }
+
+    /**
+     * Runs the inspections of the reactor projects until the inspections of
+     * a task match {@code stopCondition}. The inspections of the tasks that
+     * did not finish are missing from the result.
+     *
+     * @param keep
+     *     Decides how the inspections of a task are kept until the reports
+     *     are written, e.g. by moving their issues to disk.
+     */
+    private List<Inspection> inspect(final Predicate<List<Inspection>> stopCondition,
+        final UnaryOperator<Inspection> keep) throws MojoFailureException {
+
+        logReactorProjects();
+        final List<MavenProject> projects = reactorProjects.stream().filter(this::hasChanges).toList();
+        if (projects.size() < reactorProjects.size()) {
+            getLog().info("Skipping " + (reactorProjects.size() - projects.size()) + " of " + reactorProjects.size()
+                          + " projects as none of their source files changed since " + getChangedSince() + ".");
+        }
+
+        final int numberOfThreads = ThreadCount.parse("coan.threads", threads);
+        final List<InspectionTask> analysers = new ArrayList<>();
+        if (pmdReactorAnalysis) {
+            analysers.addAll(createPmdReactorTasks(projects, numberOfThreads));
+        }
+        final int concurrentPmdAnalyses = Math.min(numberOfThreads, projects.size());
+        for (final MavenProject reactorProject : projects) {
+            if (!pmdReactorAnalysis) {
+                final String fingerprint = getFingerprint("PMD", Versions.getPmdVersion(),
+                    () -> PmdInspector.getConfigFiles(
+                        Configs.resolve("PMD", getPmdConfigPath(), reactorProject, getLog()),
+                        getBaseDir(reactorProject)),
+                    List.of(reactorProject), true);
+                analysers.add(InspectionTask.of(reactorProject, "PMD", fingerprint,
+                    () -> new PmdInspector(assemblePmdConfig(reactorProject, concurrentPmdAnalyses)).inspect()));
+            }
+            final String fingerprint = getFingerprint("Checkstyle", Versions.getCheckstyleVersion(),
+                () -> CheckstyleInspector.getConfigFiles(
+                    Configs.resolve("Checkstyle", getCheckstyleConfigPath(), reactorProject, getLog()),
+                    getBaseDir(reactorProject)),
+                List.of(reactorProject), false);
+            analysers.add(InspectionTask.of(reactorProject, "Checkstyle", fingerprint,
+                () -> new CheckstyleInspector(assembleCheckstyleConfig(reactorProject)).inspect()));
+        }
+
+        try {
+            final StoredInspections storedInspections =
+                new StoredInspections(Paths.get(getTargetPath()).resolve("inspections"), getLog());
+            final InspectionScheduler scheduler = new InspectionScheduler(numberOfThreads, TIMEOUT);
+            final List<List<Inspection>> inspections = new ArrayList<>(Collections.nCopies(analysers.size(), null));
+            final List<InspectionTask> pendingTasks = new ArrayList<>();
+            final List<Integer> pendingIndexes = new ArrayList<>();
+            for (int i = 0; i < analysers.size(); i++) {
+                final InspectionTask task = analysers.get(i);
+                final Optional<List<Inspection>> stored = task.fingerprint() == null
+                                                          ? Optional.empty()
+                                                          : storedInspections.get(task.id(), task.fingerprint(),
+                                                              task.projects());
+                if (stored.isPresent()) {
+                    getLog().debug("Reusing the inspections of " + task.id() + " as nothing changed.");
+                    inspections.set(i, stored.get().stream().map(keep).toList());
+                } else {
+                    pendingTasks.add(keeping(storing(task, storedInspections, scheduler), keep, scheduler));
+                    pendingIndexes.add(i);
+                }
+            }
+            if (pendingTasks.size() < analysers.size()) {
+                getLog().info("Reusing the results of " + (analysers.size() - pendingTasks.size())
+                              + " inspections of unchanged projects.");
+            }
+
+            // The reused inspections might already be reason enough to stop.
+            if (inspections.stream().noneMatch(stored -> stored != null && stopCondition.test(stored))) {
+                getLog().debug("Running " + pendingTasks.size() + " inspections on " + numberOfThreads + " threads.");
+                final InspectionCosts costs =
+                    InspectionCosts.load(Paths.get(getTargetPath()), getLog(), this::getSourceFiles);
+                final List<List<Inspection>> newInspections = scheduler.run(pendingTasks, costs, stopCondition);
+                costs.save();
+                for (int i = 0; i < pendingIndexes.size(); i++) {
+                    inspections.set(pendingIndexes.get(i), newInspections.get(i));
+                }
+            }
+            final long cancelled = inspections.stream().filter(Objects::isNull).count();
+            if (cancelled > 0) {
+                getLog().warn("Cancelled " + cancelled + " of " + analysers.size() + " inspections as "
+                              + "coan.failFast is enabled. The reports only contain the issues found so far.");
+            }
+            return inspections.stream().filter(Objects::nonNull).flatMap(List::stream).toList();
 
         } catch (final RejectedExecutionException e) {
             throw new MojoFailureException(e.getMessage(), e);
@@ -63,6 +186,125 @@ public class AggregateMojo extends AbstractCoanMojo {
 
     }
 
+    /**
+     * Creates one task for every distinct PMD configuration in the reactor.
+     * Each task runs a single PMD analysis over all projects that share the
+     * configuration.
+     */
+    private List<InspectionTask> createPmdReactorTasks(final List<MavenProject> projects, final int numberOfThreads)
+        throws MojoFailureException {
+        final Map<Path, List<MavenProject>> projectsByConfig = new LinkedHashMap<>();
+        for (final MavenProject reactorProject : projects) {
+            final Path configPath = Configs.resolve("PMD", getPmdConfigPath(), reactorProject, getLog());
+            projectsByConfig.computeIfAbsent(configPath, path -> new ArrayList<>()).add(reactorProject);
+        }
+        final int concurrentPmdAnalyses = Math.min(numberOfThreads, projectsByConfig.size());
+        final List<InspectionTask> tasks = new ArrayList<>(projectsByConfig.size());
+        for (final Map.Entry<Path, List<MavenProject>> entry : projectsByConfig.entrySet()) {
+            final List<PmdConfig> configs = new ArrayList<>(entry.getValue().size());
+            for (final MavenProject reactorProject : entry.getValue()) {
+                configs.add(assemblePmdConfig(reactorProject, concurrentPmdAnalyses));
+            }
+            final String id = InspectionTask.id(getProject(), "PMD:" + entry.getKey());
+            final MavenProject first = entry.getValue().get(0);
+            final String fingerprint = getFingerprint("PMD", Versions.getPmdVersion(),
+                () -> PmdInspector.getConfigFiles(entry.getKey(), getBaseDir(first)), entry.getValue(), true);
+            tasks.add(new InspectionTask(id, entry.getValue(),
+                () -> new PmdReactorInspector(entry.getKey(), configs).inspect(), fingerprint));
+        }
+        return tasks;
+    }
+
+    /**
+     * Returns the fingerprint of an inspection task, or {@code null} if the
+     * inspections must not be reused. They must not be reused when only the
+     * changed files are analysed, as the inspections of a project then depend
+     * on the revision, or when the result cache is disabled, as this usually
+     * means that a fresh analysis is wanted.
+     */
+    private String getFingerprint(final String tool, final String toolVersion, final ConfigFiles configFiles,
+        final List<MavenProject> projects, final boolean includeClasspath) throws MojoFailureException {
+        if (isChangedSinceSet() || !isResultCacheEnabled()) {
+            return null;
+        }
+        return fingerprints.of(tool, toolVersion, configFiles.resolve(), getSourceFileFinder(), projects,
+            includeClasspath);
+    }
+
+    private static Path getBaseDir(final MavenProject project) {
+        return project.getBasedir().toPath();
+    }
+
+    /**
+     * Wraps a task so it stores its inspections after it has run, unless the
+     * scheduler has been cancelled in the meantime.
+     */
+    static InspectionTask storing(final InspectionTask task, final StoredInspections storedInspections,
+        final InspectionScheduler scheduler) {
+        if (task.fingerprint() == null) {
+            return task;
+        }
+        return new InspectionTask(task.id(), task.projects(), () -> {
+            final List<Inspection> inspections = task.inspector().call();
+            return scheduler.unlessCancelled(() -> {
+                storedInspections.put(task.id(), task.fingerprint(), task.projects(), inspections);
+                return inspections;
+            }).orElse(List.of());
+        }, task.fingerprint());
+    }
+
+    /**
+     * Returns the condition that stops the inspections early. The build is
+     * going to fail anyway as soon as an inspection finds an issue at or
+     * above {@code coan.failFast.severity} that is not in the baseline, so
+     * there is no point in waiting for the remaining inspections.
+     */
+    private Predicate<List<Inspection>> getStopCondition() throws MojoFailureException {
+        if (!failFast || !isFailOnIssues()) {
+            return inspections -> false;
+        }
+        final Issue.Severity severity = parseSeverity(failFastSeverity);
+        final Baseline baseline = loadBaseline();
+        return inspections -> {
+            final List<Inspection> relevant = baseline == null ? inspections : baseline.filter(inspections);
+            return relevant.stream()
+                .flatMap(inspection -> inspection.issues().stream())
+                .anyMatch(issue -> issue.severity().compareTo(severity) <= 0);
+        };
+    }
+
+    private static Issue.Severity parseSeverity(final String severity) throws MojoFailureException {
+        for (final Issue.Severity value : Issue.Severity.values()) {
+            if (value.getName().equalsIgnoreCase(severity.trim())) {
+                return value;
+            }
+        }
+        final String validValues = Arrays.stream(Issue.Severity.values())
+            .map(Issue.Severity::getName)
+            .collect(joining(", "));
+        final String msg = "Invalid severity \"%s\" for coan.failFast.severity. Valid values are %s.";
+        throw new MojoFailureException(String.format(msg, severity, validValues));
+    }
+
+    /**
+     * Wraps a task so its inspections are passed to {@code keep} on the
+     * thread of the task, before the next task starts. The inspections of a
+     * task that finishes after the scheduler has been cancelled are dropped,
+     * as {@code keep} might not be usable anymore.
+     */
+    static InspectionTask keeping(final InspectionTask task, final UnaryOperator<Inspection> keep,
+        final InspectionScheduler scheduler) {
+        return new InspectionTask(task.id(), task.projects(), () -> {
+            final List<Inspection> inspections = task.inspector().call();
+            return scheduler.unlessCancelled(() -> inspections.stream().map(keep).toList()).orElse(List.of());
+        }, task.fingerprint());
+    }
+
+    @FunctionalInterface
+    private interface ConfigFiles {
+        Collection<Path> resolve() throws MojoFailureException;
+    }
+
     private void failOnIssues(final List<Inspection> inspections) throws MojoFailureException {
         final boolean foundIssues = inspections.stream().anyMatch(Inspection::foundIssues);
         if (isFailOnIssues() && foundIssues) {
@@ -81,15 +323,4 @@ public class AggregateMojo extends AbstractCoanMojo {
         }
     }
 
-    private static Inspection waitUntilFinished(final Future<Inspection> runningAnalysis) {
-        try {
-            return runningAnalysis.get(1, TimeUnit.HOURS);
-        } catch (final InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new AnalysisExecutionException(e);
-        } catch (final ExecutionException | TimeoutException e) {
-            throw new AnalysisExecutionException(e);
-        }
-    }
-
 }
@@ -7,6 +7,7 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.project.MavenProject;
 
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -22,16 +23,21 @@ public class AnalyseMojo extends AbstractCoanMojo {
 
     @Override
     protected void analyseCode() throws MojoFailureException {
+        if (!hasChanges(getProject())) {
+            getLog().info("Skipping code analysis as no source files changed since " + getChangedSince() + ".");
+            return;
+        }
         try (ExecutorService executorService = Executors.newFixedThreadPool(2)) {
             final MavenProject project = getProject();
-            final PmdInspector pmdInspector = new PmdInspector(assemblePmdConfig(project));
+            final PmdInspector pmdInspector = new PmdInspector(assemblePmdConfig(project, 1));
             final CheckstyleInspector checkstyleInspector = new CheckstyleInspector(assembleCheckstyleConfig(project));
 
             final Future<Inspection> pmdFuture = executorService.submit(pmdInspector::inspect);
             final Future<Inspection> checkstyleFuture = executorService.submit(checkstyleInspector::inspect);
 
-            final Inspection pmdInspection = pmdFuture.get();
-            final Inspection checkstyleInspection = checkstyleFuture.get();
+            final List<Inspection> inspections = applyBaseline(List.of(pmdFuture.get(), checkstyleFuture.get()));
+            final Inspection pmdInspection = inspections.get(0);
+            final Inspection checkstyleInspection = inspections.get(1);
 
             LogReport.report(pmdInspection, project.getBasedir().toPath(), getLog());
             LogReport.report(checkstyleInspection, project.getBasedir().toPath(), getLog());
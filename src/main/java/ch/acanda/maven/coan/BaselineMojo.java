@@ -0,0 +1,41 @@
+package ch.acanda.maven.coan;
+
+import ch.acanda.maven.coan.baseline.Baseline;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * The "baseline" goal analyses all projects of the reactor like the goal
+ * "aggregate" and writes the fingerprints of all issues it finds to the
+ * baseline file. The goals "analyse" and "aggregate" do not report the
+ * issues of the baseline file if {@code coan.baselinePath} is set.
+ */
+@Mojo(name = "baseline", aggregator = true, threadSafe = true)
+public class BaselineMojo extends AggregateMojo {
+
+    private static final String DEFAULT_BASELINE_PATH = "config/coan-baseline.bin";
+
+    @Override
+    protected void analyseCode() throws MojoFailureException {
+        if (isChangedSinceSet()) {
+            // A baseline of the changed files would drop the issues of all
+            // other files and report them again in the next analysis.
+            throw new MojoFailureException("The goal baseline analyses all files and cannot be combined with "
+                                           + "coan.changedSince. Remove coan.changedSince and run it again.");
+        }
+        final boolean isConfigured = getBaselinePath() != null && !getBaselinePath().isBlank();
+        final String baselinePath = isConfigured ? getBaselinePath() : DEFAULT_BASELINE_PATH;
+        final Path baselineFile = getProject().getBasedir().toPath().resolve(baselinePath);
+        final List<Inspection> inspections = inspect();
+        final int issues = Baseline.write(baselineFile, inspections);
+        getLog().info("The baseline with " + issues + (issues == 1 ? " issue" : " issues")
+                      + " is available at " + baselineFile);
+        if (!isConfigured) {
+            getLog().info("Set coan.baselinePath to " + baselinePath + " to ignore these issues in future analyses.");
+        }
+    }
+
+}
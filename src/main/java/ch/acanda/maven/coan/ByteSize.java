@@ -0,0 +1,43 @@
+package ch.acanda.maven.coan;
+
+import lombok.experimental.UtilityClass;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.util.Locale;
+
+@UtilityClass
+public class ByteSize {
+
+    /**
+     * Parses a size in bytes, optionally followed by one of the binary units
+     * {@code K}, {@code M} or {@code G}, e.g. {@code 4096}, {@code 512K} or
+     * {@code 100M}.
+     */
+    public static long parse(final String parameter, final String value) throws MojoFailureException {
+        final String trimmed = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        final int shift = switch (trimmed.isEmpty() ? ' ' : trimmed.charAt(trimmed.length() - 1)) {
+            case 'K' -> 10;
+            case 'M' -> 20;
+            case 'G' -> 30;
+            default -> 0;
+        };
+        final String number = shift == 0 ? trimmed : trimmed.substring(0, trimmed.length() - 1).trim();
+        try {
+            final long size = Long.parseLong(number);
+            if (size >= 0 && size <= Long.MAX_VALUE >> shift) {
+                return size << shift;
+            }
+        } catch (final NumberFormatException e) {
+            throw invalidSize(parameter, value, e);
+        }
+        throw invalidSize(parameter, value, null);
+    }
+
+    private static MojoFailureException invalidSize(final String parameter, final String value,
+        final Throwable cause) {
+        final String msg = "Invalid value \"%s\" for %s. Use a number of bytes, e.g. 4096, "
+                           + "or a number followed by K, M or G, e.g. 512K or 100M.";
+        return new MojoFailureException(String.format(msg, value, parameter), cause);
+    }
+
+}
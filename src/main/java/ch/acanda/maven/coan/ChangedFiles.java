@@ -0,0 +1,111 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * The files of a Git repository that changed since a base revision, e.g. the
+ * target branch of a pull request.
+ * <p>
+ * The changes are determined with the {@code git} executable. They include
+ * the commits since the merge base of the revision and {@code HEAD}, the
+ * uncommitted changes in the working tree and the untracked files that are
+ * not ignored. Deleted files are not included as there is nothing left to
+ * analyse.
+ * </p>
+ */
+final class ChangedFiles {
+
+    /** The real paths of the changed files. */
+    private final Set<Path> files;
+
+    private ChangedFiles(final Set<Path> files) {
+        this.files = files;
+    }
+
+    static ChangedFiles since(final String revision, final Path directory, final Log log)
+        throws MojoFailureException {
+        final Path root = toRealPath(Paths.get(git(directory, "rev-parse", "--show-toplevel").trim()))
+            .orElseThrow(() -> new MojoFailureException("Failed to find the root of the Git repository."));
+        final String base = git(root, "merge-base", revision, "HEAD").trim();
+        final Set<Path> files = new HashSet<>();
+        addFiles(files, root, git(root, "diff", "--name-only", "-z", "--diff-filter=ACMRT", base));
+        addFiles(files, root, git(root, "ls-files", "-z", "--others", "--exclude-standard"));
+        log.info(files.size() + (files.size() == 1 ? " file" : " files") + " changed since " + revision + ".");
+        return new ChangedFiles(files);
+    }
+
+    boolean contains(final Path file) {
+        return toRealPath(file).filter(files::contains).isPresent();
+    }
+
+    /**
+     * Returns {@code true} if any of the source or test source files of the
+     * project changed.
+     */
+    boolean affects(final MavenProject project) {
+        final Build build = project.getBuild();
+        final List<Path> directories = Stream.of(build.getSourceDirectory(), build.getTestSourceDirectory())
+            .map(Paths::get)
+            .map(ChangedFiles::toRealPath)
+            .flatMap(Optional::stream)
+            .toList();
+        return files.stream().anyMatch(file -> directories.stream().anyMatch(file::startsWith));
+    }
+
+    private static void addFiles(final Set<Path> files, final Path root, final String output) {
+        for (final String name : output.split("\0")) {
+            if (!name.isEmpty()) {
+                files.add(root.resolve(name));
+            }
+        }
+    }
+
+    private static Optional<Path> toRealPath(final Path file) {
+        try {
+            return Optional.of(file.toRealPath());
+        } catch (final IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String git(final Path directory, final String... arguments) throws MojoFailureException {
+        final List<String> command = new ArrayList<>(arguments.length + 1);
+        command.add("git");
+        command.addAll(List.of(arguments));
+        try {
+            final Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectError(Redirect.INHERIT)
+                .start();
+            final String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            final int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new MojoFailureException(
+                    "The command \"" + String.join(" ", command) + "\" failed with exit code " + exitCode + ".");
+            }
+            return output;
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to run git. Analysing only the changed files requires the git "
+                                           + "executable on the path.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Interrupted while running git.", e);
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Estimates how expensive an inspection is so the scheduler can start the
+ * most expensive inspections first.
+ * <p>
+ * If an inspection ran before, its estimate is the duration it took during
+ * the previous run. The durations are stored in the target path. Otherwise,
+ * the estimate is derived from the number and size of the source files of the
+ * inspected projects, converted to milliseconds with the throughput of the
+ * inspections whose durations are known. The source files are the ones the
+ * inspections analyse, so the source directories are only walked once.
+ * </p>
+ */
+class InspectionCosts {
+
+    private static final String FILE_NAME = "inspection-durations.properties";
+    /** Every file has a fixed cost, e.g. for opening and parsing it, that we express as a number of bytes. */
+    private static final long FILE_OVERHEAD_BYTES = 4096;
+
+    private final Path file;
+    private final Log log;
+    private final Properties durations;
+    private final SourceFileLookup sourceFiles;
+    private final Map<MavenProject, Long> sizes = new HashMap<>();
+
+    private InspectionCosts(final Path file, final Log log, final Properties durations,
+        final SourceFileLookup sourceFiles) {
+        this.file = file;
+        this.log = log;
+        this.durations = durations;
+        this.sourceFiles = sourceFiles;
+    }
+
+    /**
+     * @param sourceFiles
+     *     Returns the source files of a project, usually from the files that
+     *     were discovered for the inspections.
+     */
+    static InspectionCosts load(final Path targetPath, final Log log, final SourceFileLookup sourceFiles) {
+        final Path file = targetPath.resolve(FILE_NAME);
+        final Properties durations = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (Reader in = Files.newBufferedReader(file)) {
+                durations.load(in);
+            } catch (final IOException | IllegalArgumentException e) {
+                log.warn("Failed to read the inspection durations of the previous run from " + file + ".", e);
+                durations.clear();
+            }
+        }
+        return new InspectionCosts(file, log, durations, sourceFiles);
+    }
+
+    /**
+     * Returns the estimated cost of every task. The estimates are comparable
+     * with each other but are not guaranteed to be in a specific unit.
+     */
+    double[] estimate(final List<InspectionTask> tasks) {
+        double knownMillis = 0;
+        double knownBytes = 0;
+        for (final InspectionTask task : tasks) {
+            final Long millis = getPreviousDuration(task);
+            if (millis != null) {
+                knownMillis += millis;
+                knownBytes += getSize(task);
+            }
+        }
+        final double millisPerByte = knownMillis > 0 && knownBytes > 0 ? knownMillis / knownBytes : 1;
+        final double[] costs = new double[tasks.size()];
+        for (int i = 0; i < costs.length; i++) {
+            final InspectionTask task = tasks.get(i);
+            final Long millis = getPreviousDuration(task);
+            costs[i] = millis == null ? getSize(task) * millisPerByte : millis;
+        }
+        return costs;
+    }
+
+    void record(final InspectionTask task, final long millis) {
+        durations.setProperty(task.id(), Long.toString(millis));
+    }
+
+    void save() {
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer out = Files.newBufferedWriter(file)) {
+                durations.store(out, "Durations of the inspections in milliseconds");
+            }
+        } catch (final IOException e) {
+            log.warn("Failed to save the inspection durations to " + file + ".", e);
+        }
+    }
+
+    private Long getPreviousDuration(final InspectionTask task) {
+        final String millis = durations.getProperty(task.id());
+        if (millis != null) {
+            try {
+                return Long.valueOf(millis);
+            } catch (final NumberFormatException e) {
+                log.debug("Ignoring invalid duration " + millis + " of " + task.id() + ".");
+            }
+        }
+        return null;
+    }
+
+    private long getSize(final InspectionTask task) {
+        return task.projects().stream()
+            .mapToLong(project -> sizes.computeIfAbsent(project, this::calculateSize))
+            .sum();
+    }
+
+    private long calculateSize(final MavenProject project) {
+        try {
+            return sourceFiles.find(project).stream().mapToLong(InspectionCosts::fileSize).sum();
+        } catch (final MojoFailureException e) {
+            // The inspection itself will report the failure.
+            log.debug("Failed to estimate the size of " + project.getArtifactId() + ".", e);
+            return 0;
+        }
+    }
+
+    private static long fileSize(final Path file) {
+        try {
+            return Files.size(file) + FILE_OVERHEAD_BYTES;
+        } catch (final IOException e) {
+            return FILE_OVERHEAD_BYTES;
+        }
+    }
+
+    @FunctionalInterface
+    interface SourceFileLookup {
+        List<Path> find(MavenProject project) throws MojoFailureException;
+    }
+
+}
@@ -0,0 +1,188 @@
+package ch.acanda.maven.coan;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Runs inspections on a bounded pool of worker threads.
+ * <p>
+ * The scheduler keeps the pending inspections in its own queue and only hands
+ * a new inspection to the pool when a worker has finished the previous one.
+ * This way at most {@code threads} inspections are alive at any time, no
+ * matter how many modules the reactor contains.
+ * </p>
+ * <p>
+ * The queue is ordered by the estimated cost of the inspections, starting
+ * with the most expensive one. This prevents a large module that happens to
+ * be scheduled last from delaying the end of the analysis while all other
+ * workers are idle.
+ * </p>
+ * <p>
+ * Neither PMD nor Checkstyle stops an analysis when its thread is
+ * interrupted, so a cancelled task may still finish after {@code run} has
+ * returned. The workers are daemon threads, so such a task does not keep
+ * the JVM alive, and a task must use {@link #unlessCancelled(Supplier)} for
+ * everything it must not do anymore once the scheduler has been cancelled.
+ * </p>
+ */
+class InspectionScheduler {
+
+    private static final ThreadFactory WORKERS = Thread.ofPlatform().name("coan-inspection-", 1).daemon().factory();
+
+    private final int threads;
+    private final Duration timeout;
+    private final ReadWriteLock cancellation = new ReentrantReadWriteLock();
+    private boolean cancelled;
+
+    InspectionScheduler(final int threads, final Duration timeout) {
+        this.threads = threads;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs all tasks and returns the inspections of every task in the same
+     * order as the tasks. The duration of every task is recorded in
+     * {@code costs}.
+     *
+     * @throws AnalysisExecutionException
+     *     if a task fails or if the tasks do not finish before the timeout.
+     *     All other tasks are cancelled in this case.
+     */
+    List<List<Inspection>> run(final List<InspectionTask> tasks, final InspectionCosts costs)
+        throws InterruptedException {
+        return run(tasks, costs, inspections -> false);
+    }
+
+    /**
+     * Runs the tasks like {@link #run(List, InspectionCosts)} but stops as
+     * soon as the inspections of a finished task match {@code stopCondition}.
+     * The tasks that have not started yet are dropped and the running tasks
+     * are interrupted without waiting for them, so their inspections are
+     * {@code null} in the returned list.
+     */
+    List<List<Inspection>> run(final List<InspectionTask> tasks, final InspectionCosts costs,
+        final Predicate<List<Inspection>> stopCondition) throws InterruptedException {
+        if (tasks.isEmpty()) {
+            return List.of();
+        }
+        final int[] queue = orderByDescendingCost(costs.estimate(tasks));
+        final int poolSize = Math.min(threads, tasks.size());
+        final List<List<Inspection>> inspections = new ArrayList<>(Collections.nCopies(tasks.size(), null));
+        final ExecutorService executorService = Executors.newFixedThreadPool(poolSize, WORKERS);
+        boolean stopped = false;
+        try {
+            final CompletionService<TaskResult> completionService =
+                new ExecutorCompletionService<>(executorService);
+            int next = 0;
+            while (next < poolSize) {
+                submit(completionService, tasks, queue[next++]);
+            }
+            final long deadline = System.nanoTime() + timeout.toNanos();
+            int pending = poolSize;
+            while (pending > 0 && !stopped) {
+                final TaskResult result = take(completionService, deadline);
+                inspections.set(result.index(), result.inspections());
+                costs.record(tasks.get(result.index()), result.millis());
+                pending--;
+                stopped = stopCondition.test(result.inspections());
+                if (!stopped && next < queue.length) {
+                    submit(completionService, tasks, queue[next++]);
+                    pending++;
+                }
+            }
+        } catch (final AnalysisExecutionException | InterruptedException e) {
+            cancel();
+            executorService.shutdownNow();
+            throw e;
+        } finally {
+            if (stopped) {
+                // Waiting for the running tasks would only delay a result
+                // that we already know, as they ignore the interruption.
+                cancel();
+                executorService.shutdownNow();
+            } else {
+                executorService.close();
+            }
+        }
+        return inspections;
+    }
+
+    /**
+     * Returns the result of {@code action} unless the scheduler has been
+     * cancelled, i.e. it stopped early or failed. Once {@code run} has
+     * cancelled the scheduler, no action starts anymore and all actions that
+     * started before have finished. Actions may run concurrently.
+     */
+    <T> Optional<T> unlessCancelled(final Supplier<T> action) {
+        cancellation.readLock().lock();
+        try {
+            return cancelled ? Optional.empty() : Optional.of(action.get());
+        } finally {
+            cancellation.readLock().unlock();
+        }
+    }
+
+    private void cancel() {
+        cancellation.writeLock().lock();
+        try {
+            cancelled = true;
+        } finally {
+            cancellation.writeLock().unlock();
+        }
+    }
+
+    private static int[] orderByDescendingCost(final double[] costs) {
+        return IntStream.range(0, costs.length)
+            .boxed()
+            .sorted(Comparator.comparingDouble((Integer i) -> costs[i]).reversed())
+            .mapToInt(Integer::intValue)
+            .toArray();
+    }
+
+    private static void submit(final CompletionService<TaskResult> completionService,
+        final List<InspectionTask> tasks, final int index) {
+        final InspectionTask task = tasks.get(index);
+        completionService.submit(() -> {
+            final long start = System.nanoTime();
+            final List<Inspection> inspections = task.inspector().call();
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new TaskResult(index, inspections, millis);
+        });
+    }
+
+    private static TaskResult take(final CompletionService<TaskResult> completionService,
+        final long deadline) throws InterruptedException {
+        final Future<TaskResult> future =
+            completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (future == null) {
+            throw new AnalysisExecutionException(new TimeoutException("The code analysis did not finish in time."));
+        }
+        try {
+            return future.get();
+        } catch (final ExecutionException e) {
+            throw new AnalysisExecutionException(e);
+        }
+    }
+
+    private record TaskResult(int index, List<Inspection> inspections, long millis) {
+    }
+
+}
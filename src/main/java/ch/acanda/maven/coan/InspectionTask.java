@@ -0,0 +1,42 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.project.MavenProject;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * A unit of work for the {@link InspectionScheduler}. Usually a task runs a
+ * single tool on a single project, but it may also inspect several projects
+ * at once and return one inspection for every project.
+ *
+ * @param id
+ *     Identifies the task across builds.
+ * @param projects
+ *     The projects that the task inspects.
+ * @param fingerprint
+ *     The fingerprint of the projects and the configuration of the tool, or
+ *     {@code null} if the inspections of the task must not be reused.
+ */
+record InspectionTask(
+    String id,
+    List<MavenProject> projects,
+    Callable<List<Inspection>> inspector,
+    String fingerprint
+) {
+
+    static InspectionTask of(final MavenProject project, final String toolName, final Callable<Inspection> inspector) {
+        return of(project, toolName, null, inspector);
+    }
+
+    static InspectionTask of(final MavenProject project, final String toolName, final String fingerprint,
+        final Callable<Inspection> inspector) {
+        final Callable<List<Inspection>> inspectors = () -> List.of(inspector.call());
+        return new InspectionTask(id(project, toolName), List.of(project), inspectors, fingerprint);
+    }
+
+    static String id(final MavenProject project, final String toolName) {
+        return project.getGroupId() + ":" + project.getArtifactId() + ":" + toolName;
+    }
+
+}
@@ -0,0 +1,170 @@
+package ch.acanda.maven.coan;
+
+import ch.acanda.maven.coan.cache.CachedIssue;
+
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of issues that stores the issues in columns instead of
+ * keeping an object for every issue.
+ * <p>
+ * The lines, columns and severities are stored in primitive arrays. The
+ * files, rule names and descriptions are stored once in a table and every
+ * issue only keeps their index. Most issues of a file share the same path,
+ * many issues share the same rule name and issues of the same rule often
+ * have the same description. An issue object is only created when an issue
+ * is read from the list, and it does not outlive the report that reads it.
+ * </p>
+ * <p>
+ * The analysis tools add their issues with a {@link Builder} as soon as they
+ * report them, so the objects of the tools, e.g. PMD's rule violations with
+ * their AST nodes, can be garbage collected right away.
+ * </p>
+ */
+public final class IssueStore extends AbstractList<Issue> implements RandomAccess {
+
+    private static final IssueStore EMPTY = new Builder().build();
+    private static final Issue.Severity[] SEVERITIES = Issue.Severity.values();
+
+    private final Path[] fileTable;
+    private final String[] nameTable;
+    private final String[] descriptionTable;
+    private final int[] files;
+    private final int[] lines;
+    private final int[] columns;
+    private final int[] names;
+    private final int[] descriptions;
+    private final byte[] severities;
+
+    private IssueStore(final Builder builder) {
+        final int size = builder.size;
+        fileTable = builder.fileTable.toArray(Path[]::new);
+        nameTable = builder.nameTable.toArray(String[]::new);
+        descriptionTable = builder.descriptionTable.toArray(String[]::new);
+        files = Arrays.copyOf(builder.files, size);
+        lines = Arrays.copyOf(builder.lines, size);
+        columns = Arrays.copyOf(builder.columns, size);
+        names = Arrays.copyOf(builder.names, size);
+        descriptions = Arrays.copyOf(builder.descriptions, size);
+        severities = Arrays.copyOf(builder.severities, size);
+    }
+
+    public static IssueStore empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns the issues as an issue store. An issue store is returned as it
+     * is, as it is immutable.
+     */
+    public static IssueStore copyOf(final Collection<? extends Issue> issues) {
+        if (issues instanceof IssueStore store) {
+            return store;
+        }
+        return new Builder().addAll(issues).build();
+    }
+
+    @Override
+    public Issue get(final int index) {
+        return new CachedIssue(
+            fileTable[files[index]],
+            lines[index],
+            columns[index],
+            nameTable[names[index]],
+            descriptionTable[descriptions[index]],
+            SEVERITIES[severities[index]]
+        );
+    }
+
+    @Override
+    public int size() {
+        return lines.length;
+    }
+
+    /**
+     * Collects issues for an issue store. A builder is not thread-safe.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final List<Path> fileTable = new ArrayList<>();
+        private final List<String> nameTable = new ArrayList<>();
+        private final List<String> descriptionTable = new ArrayList<>();
+        private final Map<Path, Integer> fileIndexes = new HashMap<>();
+        private final Map<String, Integer> nameIndexes = new HashMap<>();
+        private final Map<String, Integer> descriptionIndexes = new HashMap<>();
+        private int[] files = new int[INITIAL_CAPACITY];
+        private int[] lines = new int[INITIAL_CAPACITY];
+        private int[] columns = new int[INITIAL_CAPACITY];
+        private int[] names = new int[INITIAL_CAPACITY];
+        private int[] descriptions = new int[INITIAL_CAPACITY];
+        private byte[] severities = new byte[INITIAL_CAPACITY];
+        private int size;
+
+        public Builder add(final Path file, final int line, final int column, final String name,
+            final String description, final Issue.Severity severity) {
+            if (size == lines.length) {
+                grow();
+            }
+            files[size] = indexOf(file, fileTable, fileIndexes);
+            lines[size] = line;
+            columns[size] = column;
+            names[size] = indexOf(name, nameTable, nameIndexes);
+            descriptions[size] = indexOf(description, descriptionTable, descriptionIndexes);
+            severities[size] = (byte) severity.ordinal();
+            size++;
+            return this;
+        }
+
+        public Builder add(final Issue issue) {
+            return add(issue.file(), issue.line(), issue.column(), issue.name(), issue.description(),
+                issue.severity());
+        }
+
+        public Builder addAll(final Iterable<? extends Issue> issues) {
+            for (final Issue issue : issues) {
+                add(issue);
+            }
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public IssueStore build() {
+            return new IssueStore(this);
+        }
+
+        private void grow() {
+            final int capacity = lines.length * 2;
+            files = Arrays.copyOf(files, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            severities = Arrays.copyOf(severities, capacity);
+        }
+
+        private static <T> int indexOf(final T value, final List<T> table, final Map<T, Integer> indexes) {
+            final Integer index = indexes.get(value);
+            if (index != null) {
+                return index;
+            }
+            indexes.put(value, table.size());
+            table.add(value);
+            return table.size() - 1;
+        }
+
+    }
+
+}
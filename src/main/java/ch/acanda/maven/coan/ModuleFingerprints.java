@@ -0,0 +1,138 @@
+package ch.acanda.maven.coan;
+
+import ch.acanda.maven.coan.cache.Hashes;
+import ch.acanda.maven.coan.version.Versions;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calculates the fingerprint of everything that has an influence on the
+ * result of an inspection of one or more projects: the versions of the
+ * plugin and the tool, the configuration and the files it references, e.g.
+ * suppressions or rule sets, the patterns that select the
+ * source files and the names, sizes and modification times of the source
+ * files and, if requested, of the test classpath.
+ * <p>
+ * Unlike the result cache, the fingerprint does not depend on the content of
+ * the source files, so recognising an unchanged project only costs a
+ * directory walk. The listings of the directories on the classpath are
+ * calculated only once, as many projects of a reactor share them.
+ * </p>
+ */
+class ModuleFingerprints {
+
+    private final Map<Path, String> directoryListings = new ConcurrentHashMap<>();
+
+    /**
+     * @param configFiles
+     *     The configuration file of the tool followed by the files it
+     *     references.
+     */
+    String of(final String tool, final String toolVersion, final Collection<Path> configFiles,
+        final SourceFiles sourceFiles, final List<MavenProject> projects, final boolean includeClasspath)
+        throws MojoFailureException {
+        final StringBuilder fingerprint = new StringBuilder()
+            .append(Versions.getPluginVersion()).append('\n')
+            .append(tool).append(' ').append(toolVersion).append('\n');
+        for (final Path configFile : configFiles) {
+            try {
+                fingerprint.append(Hashes.hash(configFile)).append('\n');
+            } catch (final IOException e) {
+                throw new MojoFailureException("Failed to read the " + tool + " configuration " + configFile + ".", e);
+            }
+        }
+        fingerprint.append(sourceFiles).append('\n');
+        final Set<Path> outputDirectories = new HashSet<>();
+        for (final MavenProject project : projects) {
+            final Build build = project.getBuild();
+            outputDirectories.add(normalize(Paths.get(build.getOutputDirectory())));
+            outputDirectories.add(normalize(Paths.get(build.getTestOutputDirectory())));
+        }
+        for (final MavenProject project : projects) {
+            fingerprint.append(project.getId()).append('\n');
+            final Build build = project.getBuild();
+            for (final String sourceDirectory : List.of(build.getSourceDirectory(), build.getTestSourceDirectory())) {
+                fingerprint.append(list(normalize(Paths.get(sourceDirectory))));
+            }
+            if (includeClasspath) {
+                for (final String element : getTestClasspathElements(project)) {
+                    final Path path = normalize(Paths.get(element));
+                    if (!outputDirectories.contains(path)) {
+                        fingerprint.append(element).append('\n').append(listClasspathElement(path));
+                    }
+                }
+            }
+        }
+        return Hashes.hash(fingerprint.toString());
+    }
+
+    private String listClasspathElement(final Path path) throws MojoFailureException {
+        if (Files.isDirectory(path)) {
+            final String listing = directoryListings.get(path);
+            if (listing != null) {
+                return listing;
+            }
+            final String newListing = Hashes.hash(list(path));
+            directoryListings.put(path, newListing);
+            return newListing;
+        }
+        return list(path);
+    }
+
+    /**
+     * Lists the names, sizes and modification times of all files in a
+     * directory or of a single file. The listing is empty if the path does
+     * not exist.
+     */
+    private static String list(final Path path) throws MojoFailureException {
+        if (!Files.exists(path)) {
+            return "";
+        }
+        final List<String> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    files.add(path.relativize(file) + " " + attrs.size() + " " + attrs.lastModifiedTime().toMillis());
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to list the files in " + path + ".", e);
+        }
+        files.sort(null);
+        final StringBuilder listing = new StringBuilder(path.toString()).append('\n');
+        files.forEach(file -> listing.append(file).append('\n'));
+        return listing.toString();
+    }
+
+    private static List<String> getTestClasspathElements(final MavenProject project) throws MojoFailureException {
+        try {
+            return project.getTestClasspathElements();
+        } catch (final DependencyResolutionRequiredException e) {
+            throw new MojoFailureException("Failed to get the project's test classpath elements.", e);
+        }
+    }
+
+    private static Path normalize(final Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+}
@@ -0,0 +1,129 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.project.MavenProject;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Collects the changes of the source files while they are being saved and
+ * assigns them to the projects whose source directories contain them, so
+ * only the projects with changed files are analysed again.
+ * <p>
+ * Editors and IDEs often save a file in several steps, so after the first
+ * change the changes are collected until no change has been reported for a
+ * quiet period.
+ * </p>
+ */
+final class SourceChanges {
+
+    private final Map<Path, MavenProject> projectsBySourceDirectory = new LinkedHashMap<>();
+    private final long quietPeriodMillis;
+
+    /**
+     * @param sourceDirectories
+     *     The normalized source directories of every watched project.
+     */
+    SourceChanges(final Map<MavenProject, List<Path>> sourceDirectories, final long quietPeriodMillis) {
+        sourceDirectories.forEach((project, directories) ->
+            directories.forEach(directory -> projectsBySourceDirectory.put(directory, project)));
+        this.quietPeriodMillis = quietPeriodMillis;
+    }
+
+    /**
+     * Waits for the next change and returns all changes that are reported
+     * until the source has been quiet for the quiet period.
+     */
+    Changes await(final Source source) throws InterruptedException {
+        final Set<Path> files = new HashSet<>();
+        Batch batch = source.take();
+        boolean overflow = false;
+        while (batch != null) {
+            files.addAll(batch.files());
+            overflow |= batch.overflow();
+            batch = source.poll(quietPeriodMillis, TimeUnit.MILLISECONDS);
+        }
+        if (overflow) {
+            return new Changes(true, Map.of());
+        }
+        final Map<MavenProject, Set<Path>> filesByProject = new LinkedHashMap<>();
+        for (final Path file : files) {
+            final MavenProject project = findProject(file);
+            if (project != null) {
+                filesByProject.computeIfAbsent(project, p -> new HashSet<>()).add(file);
+            }
+        }
+        return new Changes(false, filesByProject);
+    }
+
+    /**
+     * Returns the project with the innermost source directory that contains
+     * the file, or {@code null} if no source directory contains it.
+     */
+    private MavenProject findProject(final Path file) {
+        Path match = null;
+        for (final Path directory : projectsBySourceDirectory.keySet()) {
+            if (file.startsWith(directory) && (match == null || directory.getNameCount() > match.getNameCount())) {
+                match = directory;
+            }
+        }
+        return match == null ? null : projectsBySourceDirectory.get(match);
+    }
+
+    /**
+     * The changed files that a source reported at once.
+     *
+     * @param overflow
+     *     {@code true} if some changes were lost and the files are therefore
+     *     incomplete.
+     */
+    record Batch(List<Path> files, boolean overflow) {
+    }
+
+    /**
+     * Reports the changed files, e.g. from a watch service.
+     */
+    interface Source {
+
+        /** Waits until files change. */
+        Batch take() throws InterruptedException;
+
+        /** Waits at most the timeout for files to change and returns {@code null} if none changed. */
+        Batch poll(long timeout, TimeUnit unit) throws InterruptedException;
+
+    }
+
+    /**
+     * The changed files grouped by project.
+     *
+     * @param overflow
+     *     {@code true} if some changes were lost, so all files of all projects
+     *     have to be analysed again.
+     */
+    record Changes(boolean overflow, Map<MavenProject, Set<Path>> filesByProject) {
+
+        /**
+         * Returns a filter that accepts the files of the project that have to
+         * be analysed again.
+         */
+        Predicate<Path> files(final MavenProject project) {
+            if (overflow) {
+                return file -> true;
+            }
+            final Set<Path> files = filesByProject.getOrDefault(project, Set.of());
+            return files::contains;
+        }
+
+        boolean affects(final MavenProject project) {
+            return overflow || filesByProject.containsKey(project);
+        }
+
+    }
+
+}
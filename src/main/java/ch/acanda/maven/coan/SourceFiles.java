@@ -0,0 +1,154 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Discovers the source files of a project, so all inspectors of the project
+ * analyse the same files without walking the source directories themselves.
+ * <p>
+ * Every directory is listed by its own fork/join task, so large source trees
+ * are walked in parallel. The include and exclude patterns are globs that
+ * are matched against the path of a file relative to its source directory,
+ * e.g. {@code **}{@code /generated/**}. A file is a source file if it matches
+ * at least one include pattern, or if there are none, and no exclude pattern.
+ * </p>
+ */
+public final class SourceFiles {
+
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final List<PathMatcher> includeMatchers;
+    private final List<PathMatcher> excludeMatchers;
+
+    public SourceFiles(final Collection<String> includes, final Collection<String> excludes)
+        throws MojoFailureException {
+        this.includes = clean(includes);
+        this.excludes = clean(excludes);
+        includeMatchers = compile("coan.includes", this.includes);
+        excludeMatchers = compile("coan.excludes", this.excludes);
+    }
+
+    /**
+     * Returns the sorted source and test source files of the project.
+     *
+     * @throws UncheckedIOException if a source directory cannot be listed.
+     */
+    public List<Path> find(final MavenProject project) {
+        final Build build = project.getBuild();
+        final List<Path> roots = Stream.of(build.getSourceDirectory(), build.getTestSourceDirectory())
+            .filter(Objects::nonNull)
+            .map(directory -> Paths.get(directory).toAbsolutePath().normalize())
+            .filter(Files::isDirectory)
+            .distinct()
+            .toList();
+        final List<DirectoryWalk> walks = roots.stream().map(DirectoryWalk::new).toList();
+        walks.forEach(ForkJoinPool.commonPool()::execute);
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < roots.size(); i++) {
+            final Path root = roots.get(i);
+            walks.get(i).join().stream()
+                .filter(file -> matches(root.relativize(file)))
+                .forEach(files::add);
+        }
+        files.sort(null);
+        return List.copyOf(files);
+    }
+
+    private boolean matches(final Path relativePath) {
+        final boolean included = includeMatchers.isEmpty()
+                                 || includeMatchers.stream().anyMatch(matcher -> matcher.matches(relativePath));
+        return included && excludeMatchers.stream().noneMatch(matcher -> matcher.matches(relativePath));
+    }
+
+    /**
+     * Describes the patterns, so fingerprints of the inspections can take
+     * them into account.
+     */
+    @Override
+    public String toString() {
+        return "includes=" + includes + " excludes=" + excludes;
+    }
+
+    private static List<String> clean(final Collection<String> patterns) {
+        if (patterns == null) {
+            return List.of();
+        }
+        return patterns.stream().map(String::trim).filter(pattern -> !pattern.isEmpty()).toList();
+    }
+
+    private static List<PathMatcher> compile(final String parameter, final List<String> patterns)
+        throws MojoFailureException {
+        final List<PathMatcher> matchers = new ArrayList<>(patterns.size());
+        for (final String pattern : patterns) {
+            try {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+            } catch (final IllegalArgumentException e) {
+                final String msg = "Invalid glob pattern \"%s\" for %s.";
+                throw new MojoFailureException(String.format(msg, pattern, parameter), e);
+            }
+        }
+        return matchers;
+    }
+
+    /**
+     * Lists the regular files in a directory and forks a new walk for every
+     * subdirectory. Like {@link Files#walk(Path, java.nio.file.FileVisitOption...)},
+     * it does not follow symbolic links to directories.
+     */
+    private static final class DirectoryWalk extends RecursiveTask<List<Path>> {
+
+        private final Path directory;
+
+        DirectoryWalk(final Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<Path> compute() {
+            final List<Path> files = new ArrayList<>();
+            final List<DirectoryWalk> subdirectories = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (final Path entry : entries) {
+                    final BasicFileAttributes attributes =
+                        Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isDirectory()) {
+                        final DirectoryWalk walk = new DirectoryWalk(entry);
+                        walk.fork();
+                        subdirectories.add(walk);
+                    } else if (attributes.isRegularFile()
+                               || attributes.isSymbolicLink() && Files.isRegularFile(entry)) {
+                        files.add(entry);
+                    }
+                }
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to collect the source files in " + directory + ".", e);
+            }
+            for (final DirectoryWalk subdirectory : subdirectories) {
+                files.addAll(subdirectory.join());
+            }
+            return files;
+        }
+
+    }
+
+}
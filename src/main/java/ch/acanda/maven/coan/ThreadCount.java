@@ -0,0 +1,67 @@
+package ch.acanda.maven.coan;
+
+import lombok.experimental.UtilityClass;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.util.Locale;
+
+@UtilityClass
+public class ThreadCount {
+
+    public static final String AUTO = "auto";
+
+    /** The upper bound of a thread count given as a multiple of the available cores. */
+    static final int MAX_THREADS = 1024;
+
+    /**
+     * Parses a thread count the same way Maven parses its {@code -T} option:
+     * either an absolute number of threads, e.g. {@code 4}, or a multiple of
+     * the available cores, e.g. {@code 1C} or {@code 0.5C}. The result is
+     * always at least one, and a multiple of the cores is at most
+     * {@value #MAX_THREADS}.
+     */
+    public static int parse(final String parameter, final String value) throws MojoFailureException {
+        final String trimmed = value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+        try {
+            if (trimmed.endsWith("C")) {
+                final double factor = Double.parseDouble(trimmed.substring(0, trimmed.length() - 1));
+                if (factor > 0 && Double.isFinite(factor)) {
+                    return (int) Math.max(1, Math.min(MAX_THREADS, factor * availableProcessors()));
+                }
+            } else {
+                final int threads = Integer.parseInt(trimmed);
+                if (threads > 0) {
+                    return threads;
+                }
+            }
+        } catch (final NumberFormatException e) {
+            throw invalidThreadCount(parameter, value, e);
+        }
+        throw invalidThreadCount(parameter, value, null);
+    }
+
+    /**
+     * Parses a thread count like {@link #parse(String, String)} but also
+     * accepts the value {@value #AUTO}, which divides the available cores
+     * evenly between the analyses that run concurrently.
+     */
+    public static int parse(final String parameter, final String value, final int concurrentAnalyses)
+        throws MojoFailureException {
+        if (value != null && AUTO.equalsIgnoreCase(value.trim())) {
+            return Math.max(1, availableProcessors() / Math.max(1, concurrentAnalyses));
+        }
+        return parse(parameter, value);
+    }
+
+    public static int availableProcessors() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    private static MojoFailureException invalidThreadCount(final String parameter, final String value,
+        final Throwable cause) {
+        final String msg = "Invalid value \"%s\" for %s. Use a positive number of threads, e.g. 4, "
+                           + "or a multiple of the available cores, e.g. 1C or 0.5C.";
+        return new MojoFailureException(String.format(msg, value, parameter), cause);
+    }
+
+}
@@ -0,0 +1,249 @@
+package ch.acanda.maven.coan;
+
+import ch.acanda.maven.coan.checkstyle.CheckstyleInspector;
+import ch.acanda.maven.coan.pmd.PmdInspector;
+import ch.acanda.maven.coan.pmd.RuleSetCache;
+import ch.acanda.maven.coan.report.LogReport;
+import org.apache.maven.model.Build;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.stream.Collectors.joining;
+import static org.apache.maven.plugins.annotations.ResolutionScope.TEST;
+
+/**
+ * The "watch" goal analyses the project once and then again whenever a
+ * source file changes, until Maven is stopped. Only the changed files are
+ * analysed again and the issues of all other files are kept from the
+ * previous analyses.
+ * <p>
+ * The goal keeps the configurations loaded between the analyses: the PMD
+ * rule sets in a {@link RuleSetCache} and the Checkstyle checkers in the pool
+ * that all Checkstyle inspectors share. Both are only loaded again when the
+ * configuration file changes.
+ * </p>
+ */
+@Mojo(name = "watch", threadSafe = true, requiresDependencyResolution = TEST)
+public class WatchMojo extends AbstractCoanMojo {
+
+    /**
+     * Editors and IDEs often save a file in several steps, so we wait this
+     * long for more changes before we start an analysis.
+     */
+    private static final long QUIET_PERIOD_MILLIS = 50;
+
+    private final RuleSetCache ruleSets = new RuleSetCache();
+    private final Map<Path, List<Issue>> pmdIssues = new TreeMap<>();
+    private final Map<Path, List<Issue>> checkstyleIssues = new TreeMap<>();
+
+    @Override
+    protected void analyseCode() throws MojoFailureException {
+        final List<Path> directories = getSourceDirectories(getProject());
+        try (WatchService watchService = FileSystems.getDefault().newWatchService();
+             ExecutorService executorService = Executors.newFixedThreadPool(2)) {
+            for (final Path directory : directories) {
+                register(directory, watchService);
+            }
+            analyse(file -> true, executorService);
+            getLog().info("Watching " + directories.stream().map(Path::toString).collect(joining(", "))
+                          + " for changes. Press Ctrl+C to stop.");
+            watch(watchService, executorService);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to watch the source directories.", e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void watch(final WatchService watchService, final ExecutorService executorService)
+        throws InterruptedException {
+        final MavenProject project = getProject();
+        final SourceChanges sourceChanges =
+            new SourceChanges(Map.of(project, getSourceDirectories(project)), QUIET_PERIOD_MILLIS);
+        final SourceChanges.Source source = new WatchServiceSource(watchService);
+        while (!Thread.currentThread().isInterrupted()) {
+            final SourceChanges.Changes changes = sourceChanges.await(source);
+            if (!changes.affects(project)) {
+                continue;
+            }
+            final long start = System.nanoTime();
+            try {
+                if (changes.overflow()) {
+                    getLog().info("Too many changes. Analysing all files.");
+                }
+                analyse(changes.files(project), executorService);
+                final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                getLog().info("Analysed the changes in " + millis + " ms.");
+            } catch (final MojoFailureException e) {
+                // A broken configuration or a file that is saved while it is
+                // analysed must not end the session.
+                getLog().error(e.getMessage(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Analyses the files that match the filter and merges the issues with
+     * the issues of all other files.
+     */
+    private void analyse(final Predicate<Path> files, final ExecutorService executorService)
+        throws MojoFailureException {
+        final MavenProject project = getProject();
+        // Files might have been added or deleted since the previous analysis.
+        forgetSourceFiles(project);
+        final Predicate<Path> fileFilter = file -> files.test(normalize(file));
+        final PmdInspector pmdInspector = new PmdInspector(assemblePmdConfig(project, 1, fileFilter), ruleSets);
+        final CheckstyleInspector checkstyleInspector =
+            new CheckstyleInspector(assembleCheckstyleConfig(project, fileFilter));
+        try {
+            final Future<Inspection> pmdFuture = executorService.submit(pmdInspector::inspect);
+            final Future<Inspection> checkstyleFuture = executorService.submit(checkstyleInspector::inspect);
+            update(pmdIssues, files, pmdFuture.get());
+            update(checkstyleIssues, files, checkstyleFuture.get());
+        } catch (final ExecutionException e) {
+            throw new MojoFailureException(e.getCause().getMessage(), e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException(e.getMessage(), e);
+        }
+
+        final List<Inspection> inspections = applyBaseline(List.of(
+            new WatchedInspection("PMD", project, flatten(pmdIssues)),
+            new WatchedInspection("Checkstyle", project, flatten(checkstyleIssues))
+        ));
+        final Path baseDir = project.getBasedir().toPath();
+        for (final Inspection inspection : inspections) {
+            LogReport.report(inspection, baseDir, getLog());
+        }
+        createReports(inspections.toArray(Inspection[]::new));
+    }
+
+    /**
+     * Replaces the issues of the analysed files and removes the issues of
+     * files that were deleted.
+     */
+    private static void update(final Map<Path, List<Issue>> issuesByFile, final Predicate<Path> analysedFiles,
+        final Inspection inspection) {
+        issuesByFile.keySet().removeIf(file -> analysedFiles.test(file) || !Files.exists(file));
+        for (final Issue issue : inspection.issues()) {
+            issuesByFile.computeIfAbsent(normalize(issue.file()), file -> new ArrayList<>()).add(issue);
+        }
+    }
+
+    private static List<Issue> flatten(final Map<Path, List<Issue>> issuesByFile) {
+        return issuesByFile.values().stream().flatMap(List::stream).toList();
+    }
+
+    private static List<Path> getSourceDirectories(final MavenProject project) {
+        final Build build = project.getBuild();
+        return Stream.of(build.getSourceDirectory(), build.getTestSourceDirectory())
+            .map(Paths::get)
+            .filter(Files::isDirectory)
+            .map(WatchMojo::normalize)
+            .toList();
+    }
+
+    /**
+     * Registers the directory and all its subdirectories, as a watch service
+     * only reports the changes of the direct children of a directory.
+     */
+    private static void register(final Path directory, final WatchService watchService) throws IOException {
+        final List<Path> directories;
+        try (Stream<Path> paths = Files.walk(directory)) {
+            directories = paths.filter(Files::isDirectory).toList();
+        }
+        for (final Path subdirectory : directories) {
+            subdirectory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        }
+    }
+
+    private static Path normalize(final Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Reports the changes of a watch service and registers new directories
+     * with it.
+     */
+    private final class WatchServiceSource implements SourceChanges.Source {
+
+        private final WatchService watchService;
+
+        WatchServiceSource(final WatchService watchService) {
+            this.watchService = watchService;
+        }
+
+        @Override
+        public SourceChanges.Batch take() throws InterruptedException {
+            return collectChanges(watchService.take());
+        }
+
+        @Override
+        public SourceChanges.Batch poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+            final WatchKey key = watchService.poll(timeout, unit);
+            return key == null ? null : collectChanges(key);
+        }
+
+        /**
+         * Returns the changed files of the watch key and registers new
+         * directories with the watch service.
+         */
+        private SourceChanges.Batch collectChanges(final WatchKey key) {
+            final Path directory = (Path) key.watchable();
+            final List<Path> changedFiles = new ArrayList<>();
+            boolean overflow = false;
+            for (final WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == OVERFLOW) {
+                    overflow = true;
+                    continue;
+                }
+                final Path path = normalize(directory.resolve((Path) event.context()));
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                    // The directory might already contain files when we register it.
+                    try (Stream<Path> files = Files.walk(path)) {
+                        register(path, watchService);
+                        files.filter(Files::isRegularFile).map(WatchMojo::normalize).forEach(changedFiles::add);
+                    } catch (final IOException | UncheckedIOException e) {
+                        getLog().debug("Failed to watch the new directory " + path + ".", e);
+                    }
+                } else {
+                    changedFiles.add(path);
+                }
+            }
+            key.reset();
+            return new SourceChanges.Batch(changedFiles, overflow);
+        }
+
+    }
+
+    private record WatchedInspection(String toolName, MavenProject project, List<Issue> issues)
+        implements Inspection {
+    }
+
+}
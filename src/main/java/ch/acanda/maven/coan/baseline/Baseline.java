@@ -0,0 +1,202 @@
+package ch.acanda.maven.coan.baseline;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import ch.acanda.maven.coan.cache.Hashes;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+/**
+ * The known issues of a project, e.g. the issues of a legacy module that
+ * nobody is going to fix any time soon.
+ * <p>
+ * Every issue is stored as a 64 bit fingerprint of the tool, the rule, the
+ * path of the file relative to the baseline file and a hash of the content
+ * of the line with the issue. The fingerprint does not contain the line
+ * number, so an issue stays in the baseline when lines are added or removed
+ * above it. It drops out of the baseline when the line itself changes.
+ * </p>
+ */
+public final class Baseline {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path baseDir;
+    private final Map<Long, Integer> counts;
+
+    private Baseline(final Path baseDir, final Map<Long, Integer> counts) {
+        this.baseDir = baseDir;
+        this.counts = counts;
+    }
+
+    public static Baseline load(final Path file) throws MojoFailureException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                throw new MojoFailureException("The baseline " + file + " was created by an incompatible version "
+                                               + "of the plugin. Please create it again.");
+            }
+            final int size = in.readInt();
+            final Map<Long, Integer> counts = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                counts.merge(in.readLong(), 1, Integer::sum);
+            }
+            return new Baseline(getBaseDir(file), counts);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to read the baseline " + file + ".", e);
+        }
+    }
+
+    /**
+     * Writes the fingerprints of all issues of the inspections to a new
+     * baseline file.
+     *
+     * @return the number of issues in the baseline.
+     */
+    public static int write(final Path file, final List<Inspection> inspections) throws MojoFailureException {
+        final Fingerprints fingerprints = new Fingerprints(getBaseDir(file));
+        final long[] values = inspections.stream()
+            .flatMapToLong(inspection -> inspection.issues().stream()
+                .mapToLong(issue -> fingerprints.of(inspection.toolName(), issue)))
+            .toArray();
+        // Sorting does not make the file smaller but it makes it stable, so
+        // the baseline does not show up as modified in version control when
+        // the issues did not change.
+        Arrays.sort(values);
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(values.length);
+                for (final long value : values) {
+                    out.writeLong(value);
+                }
+            }
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to write the baseline " + file + ".", e);
+        }
+        return values.length;
+    }
+
+    /**
+     * Removes all issues from the inspections that are in the baseline. If the
+     * baseline contains an issue once, but the inspections contain it twice,
+     * e.g. because a line was duplicated, then only one of them is removed.
+     */
+    public List<Inspection> filter(final List<Inspection> inspections) {
+        final List<Inspection> filtered = new ArrayList<>(inspections);
+        replaceAll(filtered, (inspection, filteredInspection) -> filteredInspection);
+        return filtered;
+    }
+
+    /**
+     * Removes the issues in the baseline like {@link #filter(List)}, but
+     * replaces every inspection of the list with its filtered inspection
+     * before the next inspection is filtered. This way an inspection can be
+     * garbage collected as soon as it has been filtered.
+     *
+     * @param inspections
+     *     A modifiable list of inspections.
+     * @param keep
+     *     Receives an inspection and its filtered inspection and returns the
+     *     inspection that replaces it in the list.
+     * @return the number of issues that were removed.
+     */
+    public int replaceAll(final List<Inspection> inspections, final BinaryOperator<Inspection> keep) {
+        final Fingerprints fingerprints = new Fingerprints(baseDir);
+        final Map<Long, Integer> remaining = new HashMap<>(counts);
+        int ignored = 0;
+        for (final ListIterator<Inspection> iterator = inspections.listIterator(); iterator.hasNext(); ) {
+            final Inspection inspection = iterator.next();
+            final IssueStore.Builder issues = new IssueStore.Builder();
+            for (final Issue issue : inspection.issues()) {
+                final long fingerprint = fingerprints.of(inspection.toolName(), issue);
+                final Integer count = remaining.get(fingerprint);
+                if (count == null) {
+                    issues.add(issue);
+                } else if (count == 1) {
+                    remaining.remove(fingerprint);
+                    ignored++;
+                } else {
+                    remaining.put(fingerprint, count - 1);
+                    ignored++;
+                }
+            }
+            iterator.set(keep.apply(inspection,
+                new FilteredInspection(inspection.toolName(), inspection.project(), issues.build())
+            ));
+        }
+        return ignored;
+    }
+
+    private static Path getBaseDir(final Path file) {
+        return file.toAbsolutePath().normalize().getParent();
+    }
+
+    /**
+     * Calculates the fingerprints of issues. It keeps the lines of the last
+     * file it read because the issues of an inspection are usually grouped
+     * by file.
+     */
+    private static final class Fingerprints {
+
+        private final Path baseDir;
+        private Path currentFile;
+        private List<String> currentLines = List.of();
+
+        private Fingerprints(final Path baseDir) {
+            this.baseDir = baseDir;
+        }
+
+        long of(final String toolName, final Issue issue) {
+            final Path file = issue.file().toAbsolutePath().normalize();
+            final String path = file.startsWith(baseDir) ? baseDir.relativize(file).toString() : file.toString();
+            final String line = getLine(file, issue.line());
+            return Hashes.hash64(toolName + '\0' + issue.name() + '\0' + path.replace('\\', '/') + '\0' + line);
+        }
+
+        private String getLine(final Path file, final int line) {
+            if (!file.equals(currentFile)) {
+                currentFile = file;
+                currentLines = readLines(file);
+            }
+            return line >= 1 && line <= currentLines.size() ? currentLines.get(line - 1).strip() : "";
+        }
+
+        private static List<String> readLines(final Path file) {
+            try {
+                return Files.readAllLines(file, StandardCharsets.UTF_8);
+            } catch (final CharacterCodingException e) {
+                return readLinesAsIsoLatin1(file);
+            } catch (final IOException e) {
+                return List.of();
+            }
+        }
+
+        private static List<String> readLinesAsIsoLatin1(final Path file) {
+            try {
+                return Files.readAllLines(file, StandardCharsets.ISO_8859_1);
+            } catch (final IOException e) {
+                return List.of();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,17 @@
+package ch.acanda.maven.coan.baseline;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.project.MavenProject;
+
+import java.util.List;
+
+/**
+ * An inspection without the issues that are listed in the baseline.
+ */
+public record FilteredInspection(
+    String toolName,
+    MavenProject project,
+    List<Issue> issues
+) implements Inspection {
+}
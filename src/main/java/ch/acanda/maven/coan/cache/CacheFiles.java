@@ -0,0 +1,72 @@
+package ch.acanda.maven.coan.cache;
+
+import lombok.experimental.UtilityClass;
+import org.apache.maven.project.MavenProject;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+@UtilityClass
+public class CacheFiles {
+
+    static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    /**
+     * Returns the path of the cache file of a tool for a single project.
+     * <p>
+     * The goal {@code aggregate} uses the same target path for all projects
+     * of the reactor and runs their analyses concurrently. Every project
+     * therefore needs its own cache file, otherwise the analyses would
+     * overwrite each other's cache.
+     * </p>
+     */
+    public static Path forProject(final String targetPath, final String tool, final MavenProject project) {
+        final String name = tool + "-" + project.getGroupId() + "-" + project.getArtifactId() + ".cache";
+        return Paths.get(targetPath).resolve(name);
+    }
+
+    /**
+     * Returns the path of the cache file of a tool for an analysis that spans
+     * several projects. The key must identify the analysis, e.g. the path of
+     * the configuration that the projects share.
+     */
+    public static Path forReactor(final String targetPath, final String tool, final String key) {
+        return Paths.get(targetPath).resolve(tool + "-reactor-" + Hashes.hash(key).substring(0, 16) + ".cache");
+    }
+
+    /**
+     * Writes a file by writing a temporary file in the same directory first
+     * and then moving it into place, so a concurrent reader never sees a
+     * partially written file.
+     */
+    static void writeAtomically(final Path file, final Content content) throws IOException {
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path tempFile = Files.createTempFile(directory, file.getFileName().toString(), TEMP_FILE_SUFFIX);
+        try {
+            try (DataOutputStream out =
+                     new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                content.writeTo(out);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @FunctionalInterface
+    interface Content {
+        void writeTo(DataOutputStream out) throws IOException;
+    }
+
+}
@@ -0,0 +1,18 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.project.MavenProject;
+
+import java.util.List;
+
+/**
+ * An inspection that was restored from a previous build instead of being
+ * run again.
+ */
+public record CachedInspection(
+    String toolName,
+    MavenProject project,
+    List<Issue> issues
+) implements Inspection {
+}
@@ -0,0 +1,26 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Issue;
+
+import java.nio.file.Path;
+
+/**
+ * An issue that is not backed by the objects of an analysis tool, e.g.
+ * because it was restored from a cache or read from an issue store.
+ */
+public record CachedIssue(
+    Path file,
+    int line,
+    int column,
+    String name,
+    String description,
+    Severity severity
+) implements Issue {
+
+    public static CachedIssue copyOf(final Issue issue) {
+        return new CachedIssue(
+            issue.file(), issue.line(), issue.column(), issue.name(), issue.description(), issue.severity()
+        );
+    }
+
+}
@@ -0,0 +1,56 @@
+package ch.acanda.maven.coan.cache;
+
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+@UtilityClass
+public class Hashes {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * The digest of {@link #hash64(String)}, which is called for every issue.
+     * A digest holds only JDK classes, so the thread-local values of the
+     * worker threads do not keep the class loader of the plugin alive.
+     */
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(Hashes::createDigest);
+
+    public static String hash(final Path file) throws IOException {
+        return hash(Files.readAllBytes(file));
+    }
+
+    public static String hash(final String text) {
+        return hash(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String hash(final byte[] bytes) {
+        return HexFormat.of().formatHex(createDigest().digest(bytes));
+    }
+
+    /**
+     * Returns the first 64 bits of the hash of a text. This is plenty to
+     * tell apart the entries of an index with millions of entries.
+     */
+    public static long hash64(final String text) {
+        // digest() resets the digest, so it can be used again right away.
+        return ByteBuffer.wrap(DIGESTS.get().digest(text.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
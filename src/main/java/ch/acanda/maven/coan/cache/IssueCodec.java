@@ -0,0 +1,64 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Issue;
+import lombok.experimental.UtilityClass;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes and reads the issues of a single file in the binary format of the
+ * caches. The path of the file is not part of the format.
+ */
+@UtilityClass
+class IssueCodec {
+
+    private static final Issue.Severity[] SEVERITIES = Issue.Severity.values();
+
+    static List<Issue> readIssues(final DataInputStream in, final Path file) throws IOException {
+        final int size = in.readInt();
+        final List<Issue> issues = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final int line = in.readInt();
+            final int column = in.readInt();
+            final String name = readString(in);
+            final String description = readString(in);
+            final Issue.Severity severity = SEVERITIES[in.readUnsignedByte()];
+            issues.add(new CachedIssue(file, line, column, name, description, severity));
+        }
+        return issues;
+    }
+
+    static void writeIssues(final DataOutputStream out, final List<? extends Issue> issues) throws IOException {
+        out.writeInt(issues.size());
+        for (final Issue issue : issues) {
+            out.writeInt(issue.line());
+            out.writeInt(issue.column());
+            writeString(out, issue.name());
+            writeString(out, issue.description());
+            out.writeByte(issue.severity().ordinal());
+        }
+    }
+
+    static String readString(final DataInputStream in) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Unlike {@link DataOutputStream#writeUTF(String)}, this method does not
+     * limit the length of the string to 64 KB.
+     */
+    static void writeString(final DataOutputStream out, final String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+}
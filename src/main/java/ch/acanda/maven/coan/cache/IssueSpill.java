@@ -0,0 +1,179 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Moves the issues of inspections to temporary files once more issues are
+ * kept in memory than the threshold allows, so the goal {@code aggregate}
+ * can analyse reactors whose issues do not fit into the heap.
+ * <p>
+ * The issues of a spilled inspection are written in runs of at most
+ * {@value #RUN_SIZE} issues. Every run is sorted by file and stores the
+ * issues of a file as one block. Iterating over the issues of a spilled
+ * inspection merges its runs, so the issues come back ordered by file and
+ * only the issues of a single file per run are in memory.
+ * </p>
+ */
+public final class IssueSpill implements AutoCloseable {
+
+    private static final int RUN_SIZE = 100_000;
+
+    private final Path directory;
+    private final long threshold;
+    private final int runSize;
+    private final Log log;
+    private final AtomicLong issuesInMemory = new AtomicLong();
+    private final Queue<Path> runs = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param directory
+     *     The directory of the temporary files. It is created on demand.
+     * @param threshold
+     *     The number of issues that are kept in memory.
+     */
+    public IssueSpill(final Path directory, final long threshold, final Log log) {
+        this(directory, threshold, RUN_SIZE, log);
+    }
+
+    IssueSpill(final Path directory, final long threshold, final int runSize, final Log log) {
+        this.directory = directory;
+        this.threshold = threshold;
+        this.runSize = runSize;
+        this.log = log;
+    }
+
+    /**
+     * Returns the inspection as it is as long as the issues of all kept
+     * inspections fit below the threshold. Otherwise, it returns an
+     * inspection whose issues are read from temporary files. This method is
+     * thread-safe.
+     *
+     * @throws UncheckedIOException if the issues cannot be written.
+     */
+    public Inspection keep(final Inspection inspection) {
+        if (inspection.issues() instanceof SpilledIssues) {
+            return inspection;
+        }
+        final int size = inspection.getNumberOfIssues();
+        if (issuesInMemory.addAndGet(size) <= threshold) {
+            return inspection;
+        }
+        issuesInMemory.addAndGet(-size);
+        log.debug("Moving the " + size + " issues of " + inspection.toolName() + " in "
+                  + inspection.project().getArtifactId() + " to " + directory + ".");
+        return new SpilledInspection(inspection.toolName(), inspection.project(), spill(inspection.issues()));
+    }
+
+    /**
+     * Releases the in-memory issues of an inspection that
+     * {@link #keep(Inspection)} returned and keeps its replacement instead,
+     * e.g. the inspection without the issues in the baseline. This method is
+     * thread-safe.
+     *
+     * @throws UncheckedIOException if the issues cannot be written.
+     */
+    public Inspection replace(final Inspection replaced, final Inspection replacement) {
+        release(replaced);
+        return keep(replacement);
+    }
+
+    /**
+     * Releases the in-memory issues of an inspection that
+     * {@link #keep(Inspection)} returned, so other inspections can use its
+     * share of the threshold. This method is thread-safe.
+     */
+    public void release(final Inspection inspection) {
+        if (!(inspection.issues() instanceof SpilledIssues)) {
+            issuesInMemory.addAndGet(-inspection.getNumberOfIssues());
+        }
+    }
+
+    private SpilledIssues spill(final List<? extends Issue> issues) {
+        try {
+            Files.createDirectories(directory);
+            final List<Path> files = new ArrayList<>();
+            for (int start = 0; start < issues.size(); start += runSize) {
+                files.add(writeRun(issues.subList(start, Math.min(start + runSize, issues.size()))));
+            }
+            return new SpilledIssues(files, issues.size());
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Failed to move issues to " + directory + ".", e);
+        }
+    }
+
+    /**
+     * Writes the issues ordered by file. Every file is written as a block
+     * that starts with its length, so a reader can read one block after the
+     * other without keeping the file open.
+     */
+    private Path writeRun(final List<? extends Issue> issues) throws IOException {
+        final Path run = Files.createTempFile(directory, "issues", ".run");
+        runs.add(run);
+        final Map<Path, List<Issue>> issuesByFile =
+            issues.stream().collect(groupingBy(Issue::file, TreeMap::new, toList()));
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)))) {
+            final ByteArrayOutputStream block = new ByteArrayOutputStream();
+            final DataOutputStream blockOut = new DataOutputStream(block);
+            for (final Map.Entry<Path, List<Issue>> entry : issuesByFile.entrySet()) {
+                block.reset();
+                IssueCodec.writeString(blockOut, entry.getKey().toString());
+                IssueCodec.writeIssues(blockOut, entry.getValue());
+                blockOut.flush();
+                out.writeInt(block.size());
+                block.writeTo(out);
+            }
+        }
+        return run;
+    }
+
+    /**
+     * Deletes the temporary files. The issues of the spilled inspections
+     * cannot be read anymore afterwards.
+     */
+    @Override
+    public void close() {
+        Path run = runs.poll();
+        while (run != null) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (final IOException e) {
+                log.debug("Failed to delete " + run + ".", e);
+            }
+            run = runs.poll();
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (final DirectoryNotEmptyException e) {
+            // Someone else put a file into the directory.
+        } catch (final IOException e) {
+            log.debug("Failed to delete " + directory + ".", e);
+        }
+    }
+
+    private record SpilledInspection(String toolName, MavenProject project, List<Issue> issues)
+        implements Inspection {
+    }
+
+}
@@ -0,0 +1,367 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * A content-addressed store of the issues that an analysis tool found in a
+ * single file.
+ * <p>
+ * The key of an entry is derived from the content of the file, from its path
+ * relative to the root directory of the project and from the fingerprint of
+ * the analysis, i.e. the version of the tool and a hash of its resolved
+ * configuration. The path is part of the key because some checks depend on
+ * it, e.g. a suppression that only applies to some directories. An entry
+ * therefore never becomes stale: when the file, the configuration or the tool
+ * changes, the analysis simply looks up a different entry. Entries that are no longer used are removed by
+ * {@link #evict()} as soon as the store exceeds its maximum size, starting
+ * with the least recently used one.
+ * </p>
+ * <p>
+ * Every entry is a separate file, so concurrent inspections and even
+ * several Maven processes can read and write the store without any
+ * coordination. An entry is written to a temporary file first and then
+ * atomically moved into place, so a reader never sees a partially written
+ * entry. As the key only depends on the path of a file relative to the root
+ * directory and not on the location of the checkout, a store can be shared
+ * by several checkouts of the same project, e.g. by all builds
+ * on a CI agent.
+ * </p>
+ */
+public final class ResultCache {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final String LOCK_FILE = "eviction.lock";
+    private static final Duration EVICTION_INTERVAL = Duration.ofMinutes(1);
+    private static final Duration ABANDONED_TEMP_FILE_AGE = Duration.ofHours(1);
+
+    /**
+     * The eviction shrinks the store a bit below its maximum size, so the next
+     * analysis does not have to evict entries again right away.
+     */
+    private static final double EVICTION_TARGET = 0.9;
+
+    private final Path directory;
+    private final Path rootDirectory;
+    private final long maxSize;
+    private final SourceContents contents;
+    private final Log log;
+    private final Map<Path, String> directoryHashes = new ConcurrentHashMap<>();
+
+    /**
+     * @param rootDirectory
+     *     The directory against which the paths of the analysed files are
+     *     relativized for the keys of the entries, usually the base directory
+     *     of the root project.
+     * @param maxSize
+     *     The maximum size of the store in bytes. The cache is disabled if the
+     *     maximum size is 0.
+     * @param contents
+     *     Provides the hashes of the analysed files, so a file that is
+     *     analysed by several tools is only read once.
+     */
+    public ResultCache(final Path directory, final Path rootDirectory, final long maxSize,
+        final SourceContents contents, final Log log) {
+        this.directory = directory;
+        this.rootDirectory = normalize(rootDirectory);
+        this.maxSize = maxSize;
+        this.contents = contents;
+        this.log = log;
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * Returns the issues of all files. Only the files without a cache entry
+     * are passed to the analysis, the issues of all other files are replayed
+     * from the cache. The result contains the issues grouped by file in the
+     * order of {@code files}, so it does not depend on which files were
+     * cached.
+     *
+     * @param fingerprint
+     *     Identifies everything besides the content of a file that has an
+     *     influence on the issues, e.g. the version of the tool and its
+     *     configuration.
+     */
+    public IssueStore analyse(final String toolName, final String fingerprint, final List<Path> files,
+        final Analysis analysis) throws MojoFailureException {
+        if (!isEnabled()) {
+            return IssueStore.copyOf(analysis.analyse(files));
+        }
+
+        final String fingerprintHash = Hashes.hash(fingerprint);
+        final Map<Path, String> keys = new LinkedHashMap<>();
+        final Map<Path, List<Issue>> cachedIssues = new HashMap<>();
+        final List<Path> modifiedFiles = new ArrayList<>();
+        for (final Path file : files) {
+            final Path normalized = normalize(file);
+            final String key = Hashes.hash(fingerprintHash + relativePath(normalized) + '\n' + hash(normalized));
+            keys.put(normalized, key);
+            get(key, normalized).ifPresentOrElse(
+                issues -> cachedIssues.put(normalized, issues),
+                () -> modifiedFiles.add(normalized)
+            );
+        }
+        log.debug(toolName + " cache: " + cachedIssues.size() + " hits, " + modifiedFiles.size() + " misses.");
+
+        final Map<Path, List<Issue>> newIssues = new LinkedHashMap<>();
+        if (!modifiedFiles.isEmpty()) {
+            for (final Issue issue : analysis.analyse(modifiedFiles)) {
+                newIssues.computeIfAbsent(normalize(issue.file()), f -> new ArrayList<>()).add(issue);
+            }
+        }
+
+        final IssueStore.Builder issues = new IssueStore.Builder();
+        for (final Map.Entry<Path, String> entry : keys.entrySet()) {
+            final Path file = entry.getKey();
+            final List<Issue> fileIssues = cachedIssues.get(file);
+            if (fileIssues == null) {
+                final List<Issue> issuesOfModifiedFile = newIssues.getOrDefault(file, List.of());
+                put(entry.getValue(), issuesOfModifiedFile);
+                issues.addAll(issuesOfModifiedFile);
+            } else {
+                issues.addAll(fileIssues);
+            }
+            newIssues.remove(file);
+        }
+        // A tool may report issues in files it was not asked to analyse. We
+        // keep them but we cannot cache them.
+        newIssues.values().forEach(issues::addAll);
+        return issues.build();
+    }
+
+    /**
+     * Returns a hash of the content of all files in a directory, e.g. a
+     * directory with class files on the classpath of an analysis. The hash is
+     * only calculated once for every directory during the lifetime of the
+     * cache.
+     */
+    public String hashDirectory(final Path dir) throws MojoFailureException {
+        final Path normalized = normalize(dir);
+        final String hash = directoryHashes.get(normalized);
+        if (hash != null) {
+            return hash;
+        }
+        try (Stream<Path> paths = Files.walk(normalized)) {
+            final StringBuilder content = new StringBuilder();
+            for (final Path file : paths.filter(Files::isRegularFile).sorted().toList()) {
+                content.append(normalized.relativize(file)).append(' ').append(Hashes.hash(file)).append('\n');
+            }
+            final String newHash = Hashes.hash(content.toString());
+            directoryHashes.put(normalized, newHash);
+            return newHash;
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to read directory " + normalized + ".", e);
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the store is smaller than
+     * its maximum size. Failing to evict entries does not fail the analysis.
+     * <p>
+     * Only one process evicts entries at a time. The others skip the eviction,
+     * as do all processes for a short while after an eviction, so a shared
+     * store is not scanned at the end of every module of a build.
+     * </p>
+     */
+    public void evict() {
+        if (!isEnabled() || !Files.isDirectory(directory)) {
+            return;
+        }
+        final Path lockFile = directory.resolve(LOCK_FILE);
+        try {
+            if (Files.exists(lockFile)
+                && Files.getLastModifiedTime(lockFile).toInstant().plus(EVICTION_INTERVAL).isAfter(Instant.now())) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = tryLock(channel)) {
+                if (lock == null) {
+                    log.debug("Another process is evicting entries from cache " + directory + ".");
+                    return;
+                }
+                evictEntries();
+                Files.setLastModifiedTime(lockFile, FileTime.from(Instant.now()));
+            }
+        } catch (final IOException e) {
+            log.warn("Failed to evict entries from cache " + directory + ".", e);
+        }
+    }
+
+    private static FileLock tryLock(final FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (final OverlappingFileLockException e) {
+            // Another thread of this process is evicting entries.
+            return null;
+        }
+    }
+
+    private void evictEntries() throws IOException {
+        final Instant abandoned = Instant.now().minus(ABANDONED_TEMP_FILE_AGE);
+        final List<StoredFile> stored = new ArrayList<>();
+        Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) throws IOException {
+                final String name = file.getFileName().toString();
+                if (name.endsWith(CacheFiles.TEMP_FILE_SUFFIX)) {
+                    // A temporary file is either being written right now or
+                    // was left behind by a process that crashed.
+                    if (attrs.lastModifiedTime().toInstant().isBefore(abandoned)) {
+                        Files.deleteIfExists(file);
+                    }
+                } else if (attrs.isRegularFile() && !LOCK_FILE.equals(name)) {
+                    stored.add(new StoredFile(file, attrs.size(), attrs.lastModifiedTime()));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                // The file was deleted or moved by another process.
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        long size = stored.stream().mapToLong(StoredFile::size).sum();
+        if (size <= maxSize) {
+            return;
+        }
+        final long targetSize = (long) (maxSize * EVICTION_TARGET);
+        stored.sort(Comparator.comparing(StoredFile::lastModified));
+        int evicted = 0;
+        for (final StoredFile file : stored) {
+            if (size <= targetSize) {
+                break;
+            }
+            Files.deleteIfExists(file.path());
+            size -= file.size();
+            evicted++;
+        }
+        log.debug("Evicted " + evicted + " entries from cache " + directory + ".");
+    }
+
+    private Optional<List<Issue>> get(final String key, final Path file) {
+        final Path entry = getEntryPath(key);
+        final List<Issue> issues;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            issues = IssueCodec.readIssues(in, file);
+        } catch (final NoSuchFileException e) {
+            return Optional.empty();
+        } catch (final IOException | IllegalArgumentException | IndexOutOfBoundsException
+                       | NegativeArraySizeException e) {
+            log.warn("Failed to read cache entry " + entry + ". The entry is ignored.", e);
+            return Optional.empty();
+        }
+        touch(entry);
+        return Optional.of(issues);
+    }
+
+    /**
+     * Writes an entry to the store. Failing to write an entry does not fail
+     * the analysis, it only makes the next analysis slower.
+     */
+    private void put(final String key, final List<Issue> issues) {
+        final Path entry = getEntryPath(key);
+        if (Files.exists(entry)) {
+            // Another inspection or process has analysed a file with the same
+            // content in the meantime. The entry is identical to ours.
+            return;
+        }
+        try {
+            CacheFiles.writeAtomically(entry, out -> {
+                out.writeInt(FORMAT_VERSION);
+                IssueCodec.writeIssues(out, issues);
+            });
+        } catch (final IOException e) {
+            if (!Files.exists(entry)) {
+                log.warn("Failed to write cache entry " + entry + ".", e);
+            }
+        }
+    }
+
+    /**
+     * Marks an entry as recently used. The eviction uses the modification
+     * time because the access time is not updated on many file systems.
+     */
+    private static void touch(final Path entry) {
+        try {
+            Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+        } catch (final IOException e) {
+            // The entry was evicted in the meantime, which does not matter as
+            // we have already read it.
+        }
+    }
+
+    private Path getEntryPath(final String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key.substring(2));
+    }
+
+    private String hash(final Path file) throws MojoFailureException {
+        try {
+            return contents.hash(file);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to read source file " + file + ".", e);
+        }
+    }
+
+    /**
+     * Returns the path of a normalized file relative to the root directory
+     * with "/" as separator, so the keys are the same on all platforms. A
+     * file on a different file system root keeps its absolute path.
+     */
+    private String relativePath(final Path file) {
+        if (!file.getRoot().equals(rootDirectory.getRoot())) {
+            return file.toString().replace('\\', '/');
+        }
+        return rootDirectory.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static Path normalize(final Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Analyses a list of files and returns the issues it found.
+     */
+    @FunctionalInterface
+    public interface Analysis {
+        List<? extends Issue> analyse(List<Path> files) throws MojoFailureException;
+    }
+
+    private record StoredFile(Path path, long size, FileTime lastModified) {
+    }
+
+}
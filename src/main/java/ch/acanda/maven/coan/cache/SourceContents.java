@@ -0,0 +1,91 @@
+package ch.acanda.maven.coan.cache;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the source files and shares their contents between all consumers of
+ * a build, so a file is only fetched from disk once even though the result
+ * cache hashes it for every tool and PMD analyses it.
+ * <p>
+ * The hash of a file is kept for the whole build, while its content is only
+ * softly referenced, so the garbage collector can reclaim the contents of a
+ * large reactor if memory gets tight. A file is read again if its size or
+ * modification time changes, e.g. while the goal "watch" is running.
+ * </p>
+ */
+public final class SourceContents {
+
+    private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the hash of the content of the file.
+     */
+    public String hash(final Path file) throws IOException {
+        return get(normalize(file)).hash();
+    }
+
+    /**
+     * Returns the content of the file decoded with the charset.
+     */
+    public String text(final Path file, final Charset charset) throws IOException {
+        final Path normalized = normalize(file);
+        final byte[] bytes = get(normalized).content().get();
+        if (bytes != null) {
+            return new String(bytes, charset);
+        }
+        // The content was reclaimed by the garbage collector. The entry is
+        // replaced with the content that is read now, so the hash always
+        // belongs to the content that was returned last.
+        final BasicFileAttributes attributes = Files.readAttributes(normalized, BasicFileAttributes.class);
+        final byte[] newBytes = Files.readAllBytes(normalized);
+        store(normalized, attributes, newBytes);
+        return new String(newBytes, charset);
+    }
+
+    /**
+     * Drops the contents of all files like the garbage collector does when
+     * memory gets tight, while keeping their hashes.
+     */
+    void releaseContents() {
+        entries.replaceAll((file, entry) -> new Entry(entry.size(), entry.lastModified(), entry.hash(),
+            new SoftReference<>(null)));
+    }
+
+    private Entry get(final Path file) throws IOException {
+        final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        final Entry entry = entries.get(file);
+        if (entry != null && entry.isUpToDate(attributes)) {
+            return entry;
+        }
+        return store(file, attributes, Files.readAllBytes(file));
+    }
+
+    private Entry store(final Path file, final BasicFileAttributes attributes, final byte[] bytes) {
+        final Entry entry = new Entry(
+            attributes.size(), attributes.lastModifiedTime(), Hashes.hash(bytes), new SoftReference<>(bytes)
+        );
+        entries.put(file, entry);
+        return entry;
+    }
+
+    private static Path normalize(final Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+    private record Entry(long size, FileTime lastModified, String hash, SoftReference<byte[]> content) {
+
+        boolean isUpToDate(final BasicFileAttributes attributes) {
+            return size == attributes.size() && lastModified.equals(attributes.lastModifiedTime());
+        }
+
+    }
+
+}
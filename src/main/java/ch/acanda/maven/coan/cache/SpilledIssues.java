@@ -0,0 +1,169 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Issue;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.AbstractList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * The issues of an inspection that were moved to temporary files by an
+ * {@link IssueSpill}.
+ * <p>
+ * The iterator merges the sorted runs, so the issues come back ordered by
+ * file. It opens a run only to read the next block of issues and closes it
+ * right away, so an iterator that is not read to the end does not leak any
+ * file handles. This list does not implement {@link java.util.RandomAccess}:
+ * reading an issue by its index reads all issues before it.
+ * </p>
+ */
+final class SpilledIssues extends AbstractList<Issue> {
+
+    private final List<Path> runs;
+    private final int size;
+
+    SpilledIssues(final List<Path> runs, final int size) {
+        this.runs = List.copyOf(runs);
+        this.size = size;
+    }
+
+    @Override
+    public Issue get(final int index) {
+        Objects.checkIndex(index, size);
+        final Iterator<Issue> issues = iterator();
+        for (int i = 0; i < index; i++) {
+            issues.next();
+        }
+        return issues.next();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @throws UncheckedIOException if a run cannot be read.
+     */
+    @Override
+    public Iterator<Issue> iterator() {
+        return new MergingIterator();
+    }
+
+    private final class MergingIterator implements Iterator<Issue> {
+
+        private final PriorityQueue<RunReader> readers =
+            new PriorityQueue<>(Comparator.comparing(RunReader::file).thenComparingInt(RunReader::index));
+        private Iterator<Issue> block = Collections.emptyIterator();
+
+        MergingIterator() {
+            for (int i = 0; i < runs.size(); i++) {
+                final RunReader reader = new RunReader(runs.get(i), i);
+                if (reader.advance()) {
+                    readers.add(reader);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!block.hasNext() && !readers.isEmpty()) {
+                final RunReader reader = readers.poll();
+                block = reader.issues().iterator();
+                if (reader.advance()) {
+                    readers.add(reader);
+                }
+            }
+            return block.hasNext();
+        }
+
+        @Override
+        public Issue next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return block.next();
+        }
+
+    }
+
+    /**
+     * Reads the blocks of a run one after the other.
+     */
+    private static final class RunReader {
+
+        private final Path run;
+        private final int index;
+        private long position;
+        private Path file;
+        private List<Issue> issues;
+
+        RunReader(final Path run, final int index) {
+            this.run = run;
+            this.index = index;
+        }
+
+        Path file() {
+            return file;
+        }
+
+        int index() {
+            return index;
+        }
+
+        List<Issue> issues() {
+            return issues;
+        }
+
+        /**
+         * Reads the next block.
+         *
+         * @return {@code false} if there are no more blocks.
+         */
+        boolean advance() {
+            try (FileChannel channel = FileChannel.open(run, READ)) {
+                if (position >= channel.size()) {
+                    return false;
+                }
+                final ByteBuffer length = read(channel, position, Integer.BYTES);
+                final ByteBuffer block = read(channel, position + Integer.BYTES, length.getInt());
+                final DataInputStream in = new DataInputStream(new ByteArrayInputStream(block.array()));
+                file = Paths.get(IssueCodec.readString(in));
+                issues = IssueCodec.readIssues(in, file);
+                position += Integer.BYTES + block.capacity();
+                return true;
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to read the spilled issues in " + run + ".", e);
+            }
+        }
+
+        private static ByteBuffer read(final FileChannel channel, final long position, final int size)
+            throws IOException {
+            final ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            return buffer.flip();
+        }
+
+    }
+
+}
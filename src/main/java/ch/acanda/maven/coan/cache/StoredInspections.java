@@ -0,0 +1,116 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stores the inspections of a task together with the fingerprint of the
+ * inspected projects, so the goal {@code aggregate} can reuse the
+ * inspections of projects that did not change instead of inspecting them
+ * again.
+ * <p>
+ * Every task has its own file, so concurrent tasks can store their
+ * inspections without any coordination.
+ * </p>
+ */
+public final class StoredInspections {
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final Path directory;
+    private final Log log;
+
+    public StoredInspections(final Path directory, final Log log) {
+        this.directory = directory;
+        this.log = log;
+    }
+
+    /**
+     * Returns the stored inspections of a task if they were stored with the
+     * same fingerprint.
+     *
+     * @param projects
+     *     The projects of the task in the same order as when the inspections
+     *     were stored.
+     */
+    public Optional<List<Inspection>> get(final String taskId, final String fingerprint,
+        final List<MavenProject> projects) {
+        final Path file = getPath(taskId);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT_VERSION || !fingerprint.equals(IssueCodec.readString(in))) {
+                return Optional.empty();
+            }
+            final int size = in.readInt();
+            final List<Inspection> inspections = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                final String toolName = IssueCodec.readString(in);
+                final MavenProject project = projects.get(in.readInt());
+                final int numberOfFiles = in.readInt();
+                final IssueStore.Builder issues = new IssueStore.Builder();
+                for (int j = 0; j < numberOfFiles; j++) {
+                    issues.addAll(IssueCodec.readIssues(in, Paths.get(IssueCodec.readString(in))));
+                }
+                inspections.add(new CachedInspection(toolName, project, issues.build()));
+            }
+            return Optional.of(inspections);
+        } catch (final NoSuchFileException e) {
+            return Optional.empty();
+        } catch (final IOException | IllegalArgumentException | IndexOutOfBoundsException
+                       | NegativeArraySizeException e) {
+            log.warn("Failed to read the stored inspections " + file + ". The inspections are ignored.", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores the inspections of a task. Failing to store the inspections
+     * does not fail the analysis, it only makes the next analysis slower.
+     */
+    public void put(final String taskId, final String fingerprint, final List<MavenProject> projects,
+        final List<Inspection> inspections) {
+        final Path file = getPath(taskId);
+        try {
+            CacheFiles.writeAtomically(file, out -> {
+                out.writeInt(FORMAT_VERSION);
+                IssueCodec.writeString(out, fingerprint);
+                out.writeInt(inspections.size());
+                for (final Inspection inspection : inspections) {
+                    IssueCodec.writeString(out, inspection.toolName());
+                    out.writeInt(projects.indexOf(inspection.project()));
+                    final Map<Path, List<Issue>> issuesByFile = new LinkedHashMap<>();
+                    for (final Issue issue : inspection.issues()) {
+                        issuesByFile.computeIfAbsent(issue.file(), f -> new ArrayList<>()).add(issue);
+                    }
+                    out.writeInt(issuesByFile.size());
+                    for (final Map.Entry<Path, List<Issue>> entry : issuesByFile.entrySet()) {
+                        IssueCodec.writeString(out, entry.getKey().toString());
+                        IssueCodec.writeIssues(out, entry.getValue());
+                    }
+                }
+            });
+        } catch (final IOException e) {
+            log.warn("Failed to store the inspections of " + taskId + ".", e);
+        }
+    }
+
+    private Path getPath(final String taskId) {
+        return directory.resolve(Hashes.hash(taskId).substring(0, 32) + ".bin");
+    }
+
+}
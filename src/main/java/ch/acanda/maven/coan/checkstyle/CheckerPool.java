@@ -0,0 +1,141 @@
+package ch.acanda.maven.coan.checkstyle;
+
+import ch.acanda.maven.coan.IssueStore;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.ThreadModeSettings;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.RootModule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Keeps configured Checkstyle root modules so they can be reused for all
+ * projects that share the same configuration file.
+ * <p>
+ * Loading a configuration and creating and configuring its modules through
+ * reflection is expensive compared to auditing a small project. The pool
+ * therefore caches the parsed configuration and the idle root modules by the
+ * path and the modification time of the configuration file. A root module is
+ * only used by one thread at a time, but several threads can borrow root
+ * modules with the same configuration concurrently.
+ * </p>
+ */
+class CheckerPool {
+
+    private final Map<Key, Configuration> configurations = new ConcurrentHashMap<>();
+    private final Map<Key, Queue<PooledChecker>> idleCheckers = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a root module configured with the configuration file. Callers
+     * must hand the root module back with {@link #release(PooledChecker, boolean)}
+     * after using it.
+     */
+    PooledChecker borrow(final Path configPath) throws CheckstyleException {
+        final Key key = createKey(configPath);
+        final PooledChecker checker = idleCheckers.computeIfAbsent(key, k -> new ConcurrentLinkedQueue<>()).poll();
+        return checker == null ? createChecker(key) : checker;
+    }
+
+    /**
+     * Returns a root module to the pool. A root module that failed is
+     * destroyed instead as it might be in an inconsistent state.
+     */
+    void release(final PooledChecker checker, final boolean failed) {
+        final Queue<PooledChecker> idle = idleCheckers.get(checker.key());
+        if (failed || idle == null) {
+            checker.rootModule().destroy();
+        } else {
+            idle.add(checker);
+        }
+    }
+
+    /**
+     * Returns the parsed configuration of the configuration file.
+     */
+    Configuration getConfiguration(final Path configPath) throws CheckstyleException {
+        return getConfiguration(createKey(configPath));
+    }
+
+    private Key createKey(final Path configPath) throws CheckstyleException {
+        try {
+            final Key key = new Key(configPath.toAbsolutePath().normalize(), Files.getLastModifiedTime(configPath));
+            evictOutdated(key);
+            return key;
+        } catch (final IOException e) {
+            throw new CheckstyleException("Failed to read the modification time of " + configPath + ".", e);
+        }
+    }
+
+    /**
+     * Removes the cached configuration and root modules of previous versions
+     * of the configuration file.
+     */
+    private void evictOutdated(final Key key) {
+        configurations.keySet().removeIf(key::isOutdatedBy);
+        idleCheckers.entrySet().removeIf(entry -> {
+            if (entry.getKey().isOutdatedBy(key)) {
+                entry.getValue().forEach(checker -> checker.rootModule().destroy());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private PooledChecker createChecker(final Key key) throws CheckstyleException {
+        final Configuration configuration = getConfiguration(key);
+        final ModuleFactory factory = new PackageObjectFactory(
+            Checker.class.getPackage().getName(), Checker.class.getClassLoader());
+        final RootModule rootModule = (RootModule) factory.createModule(configuration.getName());
+        rootModule.setModuleClassLoader(Checker.class.getClassLoader());
+        rootModule.configure(configuration);
+        final IssueCollector issueCollector = new IssueCollector();
+        rootModule.addListener(issueCollector);
+        return new PooledChecker(key, rootModule, issueCollector);
+    }
+
+    private Configuration getConfiguration(final Key key) throws CheckstyleException {
+        Configuration configuration = configurations.get(key);
+        if (configuration == null) {
+            configuration = ConfigurationLoader.loadConfiguration(
+                key.path().toString(),
+                new PropertiesExpander(new Properties()),
+                ConfigurationLoader.IgnoredModulesOptions.OMIT,
+                new ThreadModeSettings(1, 1));
+            configurations.put(key, configuration);
+        }
+        return configuration;
+    }
+
+    record Key(Path path, FileTime lastModified) {
+
+        boolean isOutdatedBy(final Key other) {
+            return path.equals(other.path) && !lastModified.equals(other.lastModified);
+        }
+
+    }
+
+    record PooledChecker(Key key, RootModule rootModule, IssueCollector issueCollector) {
+
+        IssueStore process(final List<File> files) throws CheckstyleException {
+            rootModule.process(files);
+            return issueCollector.removeIssues();
+        }
+
+    }
+
+}
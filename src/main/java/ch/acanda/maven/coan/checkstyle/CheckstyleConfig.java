@@ -1,12 +1,19 @@
 package ch.acanda.maven.coan.checkstyle;
 
+import ch.acanda.maven.coan.cache.ResultCache;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 
+import java.nio.file.Path;
+import java.util.List;
+
 public record CheckstyleConfig(
     MavenProject project,
     Log log,
     String configPath,
-    String targetPath
+    String targetPath,
+    int threads,
+    ResultCache cache,
+    List<Path> files
 ) {
 }
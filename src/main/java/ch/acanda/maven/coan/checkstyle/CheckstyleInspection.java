@@ -1,13 +1,14 @@
 package ch.acanda.maven.coan.checkstyle;
 
 import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
 import org.apache.maven.project.MavenProject;
 
 import java.util.List;
 
 record CheckstyleInspection(
     MavenProject project,
-    List<CheckstyleIssue> issues
+    List<Issue> issues
 ) implements Inspection {
 
     @Override
@@ -2,34 +2,59 @@ package ch.acanda.maven.coan.checkstyle;
 
 import ch.acanda.maven.coan.Configs;
 import ch.acanda.maven.coan.Inspection;
-import com.puppycrawl.tools.checkstyle.Checker;
-import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
-import com.puppycrawl.tools.checkstyle.ModuleFactory;
-import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
-import com.puppycrawl.tools.checkstyle.PropertiesExpander;
-import com.puppycrawl.tools.checkstyle.ThreadModeSettings;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import ch.acanda.maven.coan.cache.Hashes;
+import ch.acanda.maven.coan.checkstyle.CheckerPool.PooledChecker;
+import ch.acanda.maven.coan.version.Versions;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
-import com.puppycrawl.tools.checkstyle.api.RootModule;
-import org.apache.maven.model.Build;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Properties;
-import java.util.stream.Stream;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
 
 public class CheckstyleInspector {
 
+    /**
+     * The pool is shared by all inspectors, so the projects of a reactor only
+     * load and configure Checkstyle once for every configuration file.
+     */
+    private static final CheckerPool CHECKERS = new CheckerPool();
+
+    /**
+     * Creating and configuring a checker is not free, so we do not split the
+     * files into chunks that are smaller than this.
+     */
+    private static final int MIN_FILES_PER_SHARD = 20;
+
+    /**
+     * The checks that keep state across the files of an audit, e.g. to report
+     * a missing package-info.java only once per directory or to compare the
+     * keys of several property files. Their issues depend on which files the
+     * same checker processes, so a configuration with one of them is never
+     * split across several checkers.
+     */
+    private static final Set<String> CROSS_FILE_CHECKS = Set.of("JavadocPackage", "Translation", "UniqueProperties");
+
+    private static final String CHECKSTYLE_PACKAGE = "com.puppycrawl.tools.checkstyle.";
+
     private final CheckstyleConfig config;
     private final Log log;
 
@@ -39,56 +64,209 @@ public class CheckstyleInspector {
     }
 
     public Inspection inspect() throws MojoFailureException {
-        try {
-            final Path configPath = Configs.resolve("Checkstyle", config.configPath(), config.project(), config.log());
-
-            final Configuration configuration = ConfigurationLoader.loadConfiguration(
-                configPath.toString(),
-                new PropertiesExpander(new Properties()),
-                ConfigurationLoader.IgnoredModulesOptions.OMIT,
-                new ThreadModeSettings(1, 1));
-
-            final ModuleFactory factory = new PackageObjectFactory(
-                Checker.class.getPackage().getName(), Checker.class.getClassLoader());
-            final RootModule rootModule = (RootModule) factory.createModule(configuration.getName());
-            rootModule.setModuleClassLoader(Checker.class.getClassLoader());
-            rootModule.configure(configuration);
-            final IssueCollector issueCollector = new IssueCollector();
-            rootModule.addListener(issueCollector);
-
-            final List<File> files = getFiles();
-            if (log.isDebugEnabled()) {
-                final String names = files.stream().map(File::getAbsolutePath).collect(joining("\n  "));
-                log.debug("Source files:\n  " + names);
-            }
-            rootModule.process(files);
+        final Path configPath = Configs.resolve("Checkstyle", config.configPath(), config.project(), config.log());
+
+        final List<File> files = getFiles();
+        if (log.isDebugEnabled()) {
+            final String names = files.stream().map(File::getAbsolutePath).collect(joining("\n  "));
+            log.debug("Source files:\n  " + names);
+        }
+
+        if (hasCrossFileChecks(configPath)) {
+            // The issues of a file then also depend on other files, e.g. a
+            // missing package-info.java, so the result of a single file
+            // cannot be reused and all files are audited together.
+            log.debug("Not using the result cache because of checks that look at several files.");
+            return new CheckstyleInspection(config.project(), inspect(configPath, files));
+        }
+        final List<Path> paths = files.stream().map(file -> Paths.get(file.getAbsolutePath())).toList();
+        final String fingerprint = getCacheFingerprint(configPath, config.project().getBasedir().toPath());
+        final List<Issue> issues = config.cache().analyse("Checkstyle", fingerprint, paths,
+            modifiedFiles -> inspect(configPath, modifiedFiles.stream().map(Path::toFile).toList()));
+        return new CheckstyleInspection(config.project(), issues);
+    }
 
-            return new CheckstyleInspection(config.project(), issueCollector.getIssues());
+    private static boolean hasCrossFileChecks(final Path configPath) throws MojoFailureException {
+        try {
+            return hasCrossFileChecks(CHECKERS.getConfiguration(configPath));
+        } catch (final CheckstyleException e) {
+            throw new MojoFailureException("Failed to load the Checkstyle configuration " + configPath + ".", e);
+        }
+    }
 
+    private IssueStore inspect(final Path configPath, final List<File> files) throws MojoFailureException {
+        if (files.isEmpty()) {
+            return IssueStore.empty();
+        }
+        try {
+            final List<List<File>> shards =
+                hasCrossFileChecks(CHECKERS.getConfiguration(configPath)) ? List.of(files) : partition(files);
+            return shards.size() > 1 ? inspectInParallel(configPath, shards) : inspectShard(configPath, files);
         } catch (final CheckstyleException e) {
             throw new MojoFailureException("Failed to run Checkstyle.", e);
         }
     }
 
-    private List<File> getFiles() {
-        final Build build = config.project().getBuild();
-        final Path sources = Paths.get(build.getSourceDirectory());
-        final Path testSources = Paths.get(build.getTestSourceDirectory());
-        return Stream.of(sources, testSources)
-            .filter(Files::exists)
-            .flatMap(CheckstyleInspector::getFiles)
-            .filter(Files::isRegularFile)
-            .filter(path -> path.getFileName().toString().endsWith(".java"))
-            .map(Path::toFile)
-            .collect(toList());
+    /**
+     * Runs a separate checker for every shard. The shards are contiguous
+     * chunks of the file list and the issues are concatenated in the order of
+     * the shards, so the result is exactly the same as if a single checker
+     * had processed all files, as long as every check only looks at one file
+     * at a time (see {@link #hasCrossFileChecks(Configuration)}).
+     */
+    private IssueStore inspectInParallel(final Path configPath, final List<List<File>> shards)
+        throws CheckstyleException, MojoFailureException {
+        log.debug("Running Checkstyle on " + shards.size() + " threads.");
+        try (ExecutorService executorService = Executors.newFixedThreadPool(shards.size())) {
+            final List<Future<IssueStore>> results = new ArrayList<>(shards.size());
+            for (final List<File> shard : shards) {
+                results.add(executorService.submit(() -> inspectShard(configPath, shard)));
+            }
+            final IssueStore.Builder issues = new IssueStore.Builder();
+            for (final Future<IssueStore> result : results) {
+                issues.addAll(result.get());
+            }
+            return issues.build();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof CheckstyleException checkstyleException) {
+                throw checkstyleException;
+            }
+            throw new MojoFailureException("Failed to run Checkstyle.", e.getCause());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoFailureException("Checkstyle was interrupted.", e);
+        }
     }
 
-    private static Stream<Path> getFiles(final Path directory) {
+    private static IssueStore inspectShard(final Path configPath, final List<File> files)
+        throws CheckstyleException {
+        final PooledChecker checker = CHECKERS.borrow(configPath);
+        boolean failed = true;
         try {
-            return Files.walk(directory);
-        } catch (final IOException e) {
-            throw new UncheckedIOException("Failed to collect source files.", e);
+            final IssueStore issues = checker.process(files);
+            failed = false;
+            return issues;
+        } finally {
+            CHECKERS.release(checker, failed);
         }
     }
 
+    private List<List<File>> partition(final List<File> files) {
+        final int maxShards = Math.max(1, files.size() / MIN_FILES_PER_SHARD);
+        final int numberOfShards = Math.min(config.threads(), maxShards);
+        final List<List<File>> shards = new ArrayList<>(numberOfShards);
+        for (int i = 0; i < numberOfShards; i++) {
+            final int from = files.size() * i / numberOfShards;
+            final int to = files.size() * (i + 1) / numberOfShards;
+            shards.add(files.subList(from, to));
+        }
+        return shards;
+    }
+
+    /**
+     * Returns {@code true} if the configuration contains a check that looks at
+     * several files or a custom module that might do so.
+     */
+    static boolean hasCrossFileChecks(final Configuration configuration) {
+        final String name = configuration.getName();
+        if (name.contains(".") && !name.startsWith(CHECKSTYLE_PACKAGE)) {
+            return true;
+        }
+        final String simpleName = name.substring(name.lastIndexOf('.') + 1).replaceFirst("Check$", "");
+        if (CROSS_FILE_CHECKS.contains(simpleName)) {
+            return true;
+        }
+        for (final Configuration child : configuration.getChildren()) {
+            if (hasCrossFileChecks(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The cached issues must not be used when the configuration, the files it
+     * references, e.g. suppressions, import control or headers, or the version
+     * of Checkstyle changes.
+     */
+    private static String getCacheFingerprint(final Path configPath, final Path baseDir)
+        throws MojoFailureException {
+        final StringBuilder fingerprint = new StringBuilder("Checkstyle ").append(Versions.getCheckstyleVersion());
+        for (final Path file : getConfigFiles(configPath, baseDir)) {
+            try {
+                fingerprint.append('\n').append(Hashes.hash(file));
+            } catch (final IOException e) {
+                throw new MojoFailureException("Failed to read the Checkstyle configuration " + file + ".", e);
+            }
+        }
+        return fingerprint.toString();
+    }
+
+    /**
+     * Returns the configuration file followed by the files it references, i.e.
+     * all files whose content has an influence on the issues besides the
+     * analysed files.
+     */
+    public static List<Path> getConfigFiles(final Path configPath, final Path baseDir) throws MojoFailureException {
+        try {
+            final Configuration configuration = CHECKERS.getConfiguration(configPath);
+            final List<Path> files = new ArrayList<>();
+            files.add(configPath);
+            files.addAll(getReferencedFiles(configuration, configPath, baseDir));
+            return files;
+        } catch (final CheckstyleException e) {
+            throw new MojoFailureException("Failed to load the Checkstyle configuration " + configPath + ".", e);
+        }
+    }
+
+    /**
+     * Returns the files that the properties of the modules refer to. Checkstyle
+     * does not tell which properties are files, so every property value that
+     * is the path of an existing file is considered a reference. A relative
+     * path is resolved like Checkstyle does against the working directory,
+     * and otherwise against the directory of the configuration file or the
+     * base directory of the project.
+     */
+    static Set<Path> getReferencedFiles(final Configuration configuration, final Path configPath,
+        final Path baseDir) {
+        final Set<Path> files = new TreeSet<>();
+        final List<Path> directories = new ArrayList<>(List.of(Paths.get("")));
+        Optional.ofNullable(configPath.toAbsolutePath().getParent()).ifPresent(directories::add);
+        directories.add(baseDir);
+        addReferencedFiles(configuration, directories, files);
+        return files;
+    }
+
+    private static void addReferencedFiles(final Configuration configuration, final List<Path> directories,
+        final Set<Path> files) {
+        for (final String name : configuration.getPropertyNames()) {
+            final String value = configuration.getProperty(name);
+            if (value == null || value.isBlank()) {
+                continue;
+            }
+            for (final Path directory : directories) {
+                try {
+                    final Path file = directory.resolve(value.trim());
+                    if (Files.isRegularFile(file)) {
+                        files.add(file.toAbsolutePath().normalize());
+                        break;
+                    }
+                } catch (final InvalidPathException e) {
+                    // The value is a pattern or some other text that cannot be a path.
+                    break;
+                }
+            }
+        }
+        for (final Configuration child : configuration.getChildren()) {
+            addReferencedFiles(child, directories, files);
+        }
+    }
+
+    private List<File> getFiles() {
+        return config.files().stream()
+            .filter(path -> path.getFileName().toString().endsWith(".java"))
+            .map(Path::toFile)
+            .toList();
+    }
+
 }
@@ -1,16 +1,26 @@
 package ch.acanda.maven.coan.checkstyle;
 
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
-import lombok.Getter;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Paths;
 
 class IssueCollector implements AuditListener {
 
-    @Getter
-    private final List<CheckstyleIssue> issues = new ArrayList<>();
+    private IssueStore.Builder issues = new IssueStore.Builder();
+
+    /**
+     * Returns the issues collected so far and clears them, so the collector
+     * can be reused for the next audit.
+     */
+    IssueStore removeIssues() {
+        final IssueStore collected = issues.build();
+        issues = new IssueStore.Builder();
+        return collected;
+    }
 
     @Override
     public void auditStarted(final AuditEvent event) {
@@ -34,7 +44,14 @@ class IssueCollector implements AuditListener {
 
     @Override
     public void addError(final AuditEvent event) {
-        issues.add(new CheckstyleIssue(event));
+        issues.add(
+            Paths.get(event.getFileName()),
+            event.getLine(),
+            event.getColumn(),
+            getName(event),
+            event.getMessage(),
+            toSeverity(event.getSeverityLevel())
+        );
     }
 
     @Override
@@ -42,4 +59,19 @@ class IssueCollector implements AuditListener {
         // nothing to do
     }
 
+    private static String getName(final AuditEvent event) {
+        final String sourceName = event.getSourceName();
+        final int pos = sourceName.lastIndexOf('.');
+        return pos == -1 ? sourceName : sourceName.substring(pos + 1);
+    }
+
+    private static Issue.Severity toSeverity(final SeverityLevel severityLevel) {
+        return switch (severityLevel) {
+            case ERROR -> Issue.Severity.HIGHEST;
+            case WARNING -> Issue.Severity.HIGH;
+            case INFO -> Issue.Severity.MEDIUM;
+            case IGNORE -> Issue.Severity.IGNORE;
+        };
+    }
+
 }
@@ -0,0 +1,89 @@
+package ch.acanda.maven.coan.pmd;
+
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import net.sourceforge.pmd.lang.document.TextFile;
+import net.sourceforge.pmd.lang.rule.RulePriority;
+import net.sourceforge.pmd.reporting.FileAnalysisListener;
+import net.sourceforge.pmd.reporting.GlobalAnalysisListener;
+import net.sourceforge.pmd.reporting.RuleViolation;
+
+import java.nio.file.Paths;
+
+/**
+ * Converts the rule violations into issues as soon as PMD reports them,
+ * instead of letting PMD collect all violations of the analysis in a report
+ * first.
+ * <p>
+ * PMD analyses the files on several threads, so the issues of every file are
+ * collected separately and added to the shared store when the analysis of
+ * the file is finished. This also keeps the issues of a file together.
+ * </p>
+ */
+class IssueCollector implements GlobalAnalysisListener {
+
+    private final IssueStore.Builder issues = new IssueStore.Builder();
+
+    /**
+     * Returns the issues of all files whose analysis is finished.
+     */
+    IssueStore getIssues() {
+        synchronized (issues) {
+            return issues.build();
+        }
+    }
+
+    @Override
+    public FileAnalysisListener startFileAnalysis(final TextFile file) {
+        return new FileIssueCollector();
+    }
+
+    @Override
+    public void close() {
+        // nothing to do
+    }
+
+    private static Issue.Severity toSeverity(final RulePriority priority) {
+        return switch (priority) {
+            case HIGH -> Issue.Severity.HIGHEST;
+            case MEDIUM_HIGH -> Issue.Severity.HIGH;
+            case MEDIUM -> Issue.Severity.MEDIUM;
+            case MEDIUM_LOW -> Issue.Severity.LOW;
+            case LOW -> Issue.Severity.LOWEST;
+        };
+    }
+
+    private final class FileIssueCollector implements FileAnalysisListener {
+
+        /** Most files do not have any issues, so the builder is only created for the first one. */
+        private IssueStore.Builder fileIssues;
+
+        @Override
+        public void onRuleViolation(final RuleViolation violation) {
+            if (fileIssues == null) {
+                fileIssues = new IssueStore.Builder();
+            }
+            fileIssues.add(
+                Paths.get(violation.getFileId().getAbsolutePath()),
+                violation.getBeginLine(),
+                violation.getBeginColumn(),
+                violation.getRule().getName(),
+                violation.getDescription(),
+                toSeverity(violation.getRule().getPriority())
+            );
+        }
+
+        @Override
+        public void close() {
+            if (fileIssues != null) {
+                final IssueStore collected = fileIssues.build();
+                synchronized (issues) {
+                    issues.addAll(collected);
+                }
+                fileIssues = null;
+            }
+        }
+
+    }
+
+}
@@ -1,12 +1,22 @@
 package ch.acanda.maven.coan.pmd;
 
+import ch.acanda.maven.coan.cache.ResultCache;
+import ch.acanda.maven.coan.cache.SourceContents;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 
+import java.nio.file.Path;
+import java.util.List;
+
 public record PmdConfig(
     MavenProject project,
     Log log,
     String configPath,
-    String targetPath
+    String targetPath,
+    int threads,
+    ResultCache cache,
+    boolean cacheIgnoresOutputDirectories,
+    SourceContents contents,
+    List<Path> files
 ) {
 }
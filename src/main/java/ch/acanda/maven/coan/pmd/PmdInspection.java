@@ -1,13 +1,14 @@
 package ch.acanda.maven.coan.pmd;
 
 import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
 import org.apache.maven.project.MavenProject;
 
 import java.util.List;
 
 public record PmdInspection(
     MavenProject project,
-    List<PmdIssue> issues
+    List<Issue> issues
 ) implements Inspection {
 
     @Override
@@ -2,116 +2,274 @@ package ch.acanda.maven.coan.pmd;
 
 import ch.acanda.maven.coan.Configs;
 import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import ch.acanda.maven.coan.cache.CacheFiles;
+import ch.acanda.maven.coan.cache.Hashes;
+import ch.acanda.maven.coan.cache.ResultCache;
+import ch.acanda.maven.coan.cache.SourceContents;
+import ch.acanda.maven.coan.version.Versions;
 import net.sourceforge.pmd.PMDConfiguration;
 import net.sourceforge.pmd.PmdAnalysis;
+import net.sourceforge.pmd.lang.document.FileId;
 import net.sourceforge.pmd.lang.rule.Rule;
 import net.sourceforge.pmd.lang.rule.RulePriority;
 import net.sourceforge.pmd.lang.rule.RuleSet;
 import net.sourceforge.pmd.lang.rule.RuleSetLoader;
-import net.sourceforge.pmd.reporting.Report;
-import net.sourceforge.pmd.reporting.RuleViolation;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.model.Build;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 
 public class PmdInspector {
 
+    private static final Pattern RULE_REFERENCE = Pattern.compile("\\bref\\s*=\\s*[\"']([^\"']+)[\"']");
+
     private final PmdConfig config;
+    private final RuleSetCache ruleSets;
     private final Log log;
 
     public PmdInspector(final PmdConfig config) {
+        this(config, new RuleSetCache());
+    }
+
+    /**
+     * Creates an inspector that takes the rule sets from the cache instead
+     * of loading them for every analysis.
+     */
+    public PmdInspector(final PmdConfig config, final RuleSetCache ruleSets) {
         this.config = config;
+        this.ruleSets = ruleSets;
         log = config.log();
     }
 
-    @SuppressWarnings("java:S4792" /* False positive */)
     public Inspection inspect() throws MojoFailureException {
-        // This triggers a false positive in Sonar (java:S4792).
-        // We disable the logger for PMD because we log the PMD issues in a
-        // different format that is consistent across all inspectors.
-        Logger.getLogger("net.sourceforge.pmd").setLevel(Level.OFF);
+        disablePmdLogger();
 
         final Path configPath = Configs.resolve("PMD", config.configPath(), config.project(), config.log());
 
-        final PMDConfiguration configuration = createPmdConfiguration(config);
-        final List<RuleSet> ruleSets = loadRuleSets(configPath);
-        if (log.isDebugEnabled()) {
-            log.debug("Active rules: " + getRules(ruleSets).collect(joining(", ", "", ".")));
-        }
-        final List<Path> files = getFiles();
+        final List<String> classpath = getTestClasspathElements(config.project());
+        final List<Path> files = config.files();
         if (log.isDebugEnabled()) {
             final String names = files.stream().map(Path::toString).collect(joining("\n  "));
             log.debug("Source files:\n  " + names);
         }
-        configuration.setInputPathList(files);
 
+        final Path baseDir = config.project().getBasedir().toPath();
+        final Set<Path> ignoredDirectories =
+            config.cacheIgnoresOutputDirectories() ? getOutputDirectories(config.project()) : Set.of();
+        final String fingerprint =
+            getCacheFingerprint(configPath, baseDir, classpath, ignoredDirectories, config.cache());
+        final List<Issue> issues = config.cache().analyse("PMD", fingerprint, files, modifiedFiles -> {
+            final PMDConfiguration configuration = createPmdConfiguration(config);
+            configuration.prependAuxClasspath(String.join(File.pathSeparator, classpath));
+            log.debug("Running PMD on " + config.threads() + " threads.");
+            return analyse(configuration, ruleSets.get(configPath, log), modifiedFiles, config.contents());
+        });
+        return new PmdInspection(config.project(), issues);
+    }
+
+    /**
+     * Analyses the files with the rule sets. PMD takes the contents of the
+     * files from {@code contents} instead of reading the files itself, so
+     * the files that the result cache has just hashed are not read again.
+     * The violations are converted into issues while PMD is still running,
+     * so they do not pile up in a report until the analysis is finished.
+     */
+    static IssueStore analyse(final PMDConfiguration configuration, final List<RuleSet> ruleSets,
+        final List<Path> files, final SourceContents contents) throws MojoFailureException {
         try (PmdAnalysis analysis = PmdAnalysis.create(configuration)) {
             analysis.addRuleSets(ruleSets);
-            final Report report = analysis.performAnalysisAndCollectReport();
-            final List<RuleViolation> violations = report.getViolations();
-            return new PmdInspection(config.project(), violations.stream().map(PmdIssue::new).collect(toList()));
+            final Charset encoding = configuration.getSourceEncoding();
+            for (final Path file : files) {
+                try {
+                    analysis.files().addSourceFile(FileId.fromPath(file), contents.text(file, encoding));
+                } catch (final IOException e) {
+                    throw new MojoFailureException("Failed to read source file " + file + ".", e);
+                }
+            }
+            final IssueCollector issues = new IssueCollector();
+            analysis.addListener(issues);
+            analysis.performAnalysis();
+            return issues.getIssues();
         }
+    }
 
+    /**
+     * The cached issues must not be used when the configuration, the rule set
+     * files it references, the version of PMD or the classpath changes, as the
+     * classpath has an influence on the type resolution. Libraries are
+     * identified by their file name, size and modification time, so a
+     * rebuilt snapshot is noticed, and directories by their content, so the
+     * fingerprint does not depend on the location of the checkout.
+     * <p>
+     * The output directories of the analysed projects change whenever one of
+     * the analysed files changes, which invalidates the cached issues of all
+     * files. They are therefore only left out of the fingerprint if the user
+     * opts in with {@code ignoredDirectories}, accepting that a change of a
+     * class that is not analysed again does not update the issues of the
+     * files that use it.
+     * </p>
+     */
+    static String getCacheFingerprint(final Path configPath, final Path baseDir, final Collection<String> classpath,
+        final Set<Path> ignoredDirectories, final ResultCache cache) throws MojoFailureException {
+        if (!cache.isEnabled()) {
+            // Hashing the class directories is not free and the fingerprint
+            // is not used anyway.
+            return "";
+        }
+        final StringBuilder fingerprint = new StringBuilder("PMD ").append(Versions.getPmdVersion());
+        for (final Path ruleSetFile : getConfigFiles(configPath, baseDir)) {
+            try {
+                fingerprint.append(' ').append(Hashes.hash(ruleSetFile));
+            } catch (final IOException e) {
+                throw new MojoFailureException("Failed to read the PMD configuration " + ruleSetFile + ".", e);
+            }
+        }
+        for (final String element : classpath) {
+            final Path path = Paths.get(element).toAbsolutePath().normalize();
+            if (ignoredDirectories.contains(path)) {
+                continue;
+            }
+            fingerprint.append('\n').append(Files.isDirectory(path) ? cache.hashDirectory(path) : describeFile(path));
+        }
+        return fingerprint.toString();
     }
 
-    private List<Path> getFiles() {
-        final Build build = config.project().getBuild();
-        final Path sources = Paths.get(build.getSourceDirectory());
-        final Path testSources = Paths.get(build.getTestSourceDirectory());
-        return Stream.of(sources, testSources)
-            .filter(Files::exists)
-            .flatMap(PmdInspector::getFiles)
-            .filter(Files::isRegularFile)
-            .collect(toList());
+    private static String describeFile(final Path path) throws MojoFailureException {
+        if (!Files.exists(path)) {
+            return path.getFileName().toString();
+        }
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return path.getFileName() + " " + attributes.size() + " " + attributes.lastModifiedTime().toMillis();
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to read the attributes of " + path + ".", e);
+        }
     }
 
-    private static Stream<Path> getFiles(final Path directory) {
+    /**
+     * Returns the rule set file followed by the rule set files it references,
+     * i.e. all files whose content has an influence on the issues besides the
+     * analysed files and the classpath.
+     */
+    public static Set<Path> getConfigFiles(final Path configPath, final Path baseDir) throws MojoFailureException {
+        final Set<Path> files = new LinkedHashSet<>();
+        files.add(configPath.toAbsolutePath().normalize());
         try {
-            return Files.walk(directory);
+            addReferencedRuleSets(configPath, baseDir, files);
         } catch (final IOException e) {
-            throw new UncheckedIOException("Failed to collect source files.", e);
+            throw new MojoFailureException("Failed to read the PMD configuration " + configPath + ".", e);
+        }
+        return files;
+    }
+
+    /**
+     * Adds the rule set files that a rule set references with
+     * {@code <rule ref="..."/>}, recursively. References to rule sets on the
+     * classpath, e.g. the categories of PMD, are covered by the version of
+     * PMD and are skipped. A relative path is resolved like PMD does against
+     * the working directory, and otherwise against the directory of the rule
+     * set or the base directory of the project.
+     */
+    static void addReferencedRuleSets(final Path ruleSet, final Path baseDir, final Set<Path> files)
+        throws IOException {
+        final Matcher matcher = RULE_REFERENCE.matcher(Files.readString(ruleSet));
+        while (matcher.find()) {
+            final String reference = matcher.group(1).trim();
+            final int xml = reference.indexOf(".xml/");
+            final String path = xml < 0 ? reference : reference.substring(0, xml + ".xml".length());
+            final Optional<Path> file = resolveRuleSet(path, ruleSet.toAbsolutePath().getParent(), baseDir);
+            if (file.isPresent() && files.add(file.get())) {
+                addReferencedRuleSets(file.get(), baseDir, files);
+            }
+        }
+    }
+
+    private static Optional<Path> resolveRuleSet(final String path, final Path ruleSetDir, final Path baseDir) {
+        try {
+            return Stream.of(Paths.get(""), ruleSetDir, baseDir)
+                .filter(Objects::nonNull)
+                .map(directory -> directory.resolve(path))
+                .filter(Files::isRegularFile)
+                .map(file -> file.toAbsolutePath().normalize())
+                .findFirst();
+        } catch (final InvalidPathException e) {
+            return Optional.empty();
         }
     }
 
-    private List<RuleSet> loadRuleSets(final Path ruleSetFile) {
+    @SuppressWarnings("java:S4792" /* False positive */)
+    static void disablePmdLogger() {
+        // This triggers a false positive in Sonar (java:S4792).
+        // We disable the logger for PMD because we log the PMD issues in a
+        // different format that is consistent across all inspectors.
+        Logger.getLogger("net.sourceforge.pmd").setLevel(Level.OFF);
+    }
+
+    static List<RuleSet> loadRuleSets(final Path ruleSetFile, final Log log) {
         final PMDConfiguration config = new PMDConfiguration();
         config.setMinimumPriority(RulePriority.LOW);
         config.setReporter(new MavenLogReporter(log));
-        return List.of(RuleSetLoader.fromPmdConfig(config).loadFromResource(ruleSetFile.toString()));
+        final List<RuleSet> ruleSets =
+            List.of(RuleSetLoader.fromPmdConfig(config).loadFromResource(ruleSetFile.toString()));
+        if (log.isDebugEnabled()) {
+            log.debug("Active rules: " + getRules(ruleSets).collect(joining(", ", "", ".")));
+        }
+        return ruleSets;
     }
 
     private static Stream<String> getRules(final List<RuleSet> ruleSets) {
         return ruleSets.stream().flatMap(rs -> rs.getRules().stream()).map(Rule::getName).sorted();
     }
 
-    private static PMDConfiguration createPmdConfiguration(final PmdConfig config) throws MojoFailureException {
+    static PMDConfiguration createPmdConfiguration(final PmdConfig config) {
         final PMDConfiguration configuration = new PMDConfiguration();
-        final Path targetPath = Paths.get(config.targetPath());
-        configuration.setAnalysisCacheLocation(targetPath.resolve("pmd.cache").toString());
-        configuration.addInputPath(Paths.get(config.project().getBuild().getSourceDirectory()));
-        configuration.addInputPath(Paths.get(config.project().getBuild().getTestSourceDirectory()));
+        // PMD runs the analysis in the calling thread if the number of threads
+        // is 0, which saves us an extra thread if only one is requested.
+        configuration.setThreads(config.threads() > 1 ? config.threads() : 0);
+        final Path cacheFile = CacheFiles.forProject(config.targetPath(), "pmd", config.project());
+        configuration.setAnalysisCacheLocation(cacheFile.toString());
+        return configuration;
+    }
+
+    static Set<Path> getOutputDirectories(final MavenProject project) {
+        final Build build = project.getBuild();
+        return Stream.of(build.getOutputDirectory(), build.getTestOutputDirectory())
+            .map(directory -> Paths.get(directory).toAbsolutePath().normalize())
+            .collect(toSet());
+    }
+
+    static List<String> getTestClasspathElements(final MavenProject project) throws MojoFailureException {
         try {
-            final String classpath = String.join(File.pathSeparator, config.project().getTestClasspathElements());
-            configuration.prependAuxClasspath(classpath);
+            return project.getTestClasspathElements();
         } catch (DependencyResolutionRequiredException e) {
             throw new MojoFailureException("Failed to get the project's test classpath elements.", e);
         }
-        return configuration;
     }
 
 }
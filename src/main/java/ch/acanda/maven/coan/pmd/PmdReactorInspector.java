@@ -0,0 +1,107 @@
+package ch.acanda.maven.coan.pmd;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import ch.acanda.maven.coan.cache.CacheFiles;
+import net.sourceforge.pmd.PMDConfiguration;
+import net.sourceforge.pmd.lang.rule.RuleSet;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs a single PMD analysis over the source files of several projects that
+ * share the same PMD configuration and splits the violations into a separate
+ * inspection for every project.
+ * <p>
+ * Compared to running a {@link PmdInspector} for every project, the rule sets
+ * are only loaded once and PMD only has to set up its language processors and
+ * type resolution once. The auxiliary classpath of the analysis is the union
+ * of the test classpaths of all projects. If two projects depend on different
+ * versions of the same library, then type resolution uses the version that
+ * comes first in the reactor.
+ * </p>
+ */
+public class PmdReactorInspector {
+
+    private final Path configPath;
+    private final List<PmdConfig> configs;
+    private final Log log;
+
+    /**
+     * @param configPath
+     *     The resolved path of the PMD configuration that all projects share.
+     * @param configs
+     *     The configurations of the projects. They must not be empty and they
+     *     must only differ in their project.
+     */
+    public PmdReactorInspector(final Path configPath, final List<PmdConfig> configs) {
+        this.configPath = configPath;
+        this.configs = configs;
+        log = configs.get(0).log();
+    }
+
+    public List<Inspection> inspect() throws MojoFailureException {
+        PmdInspector.disablePmdLogger();
+
+        final PmdConfig first = configs.get(0);
+        final Map<Path, MavenProject> projectsByFile = new LinkedHashMap<>();
+        final Set<String> classpath = new LinkedHashSet<>();
+        final Set<Path> ignoredDirectories = new HashSet<>();
+        for (final PmdConfig config : configs) {
+            for (final Path file : config.files()) {
+                projectsByFile.put(normalize(file), config.project());
+            }
+            classpath.addAll(PmdInspector.getTestClasspathElements(config.project()));
+            if (config.cacheIgnoresOutputDirectories()) {
+                ignoredDirectories.addAll(PmdInspector.getOutputDirectories(config.project()));
+            }
+        }
+
+        final String fingerprint = PmdInspector.getCacheFingerprint(configPath, first.project().getBasedir().toPath(),
+            classpath, ignoredDirectories, first.cache());
+        final List<Path> files = new ArrayList<>(projectsByFile.keySet());
+        final List<Issue> issues = first.cache().analyse("PMD", fingerprint, files, modifiedFiles -> {
+            final PMDConfiguration configuration = PmdInspector.createPmdConfiguration(first);
+            final Path cacheFile = CacheFiles.forReactor(first.targetPath(), "pmd", configPath.toString());
+            configuration.setAnalysisCacheLocation(cacheFile.toString());
+            configuration.prependAuxClasspath(String.join(File.pathSeparator, classpath));
+            log.debug("Running PMD on " + modifiedFiles.size() + " files of " + configs.size() + " projects using "
+                      + first.threads() + " threads.");
+            final List<RuleSet> ruleSets = PmdInspector.loadRuleSets(configPath, log);
+            return PmdInspector.analyse(configuration, ruleSets, modifiedFiles, first.contents());
+        });
+
+        final Map<MavenProject, IssueStore.Builder> issuesByProject = new LinkedHashMap<>();
+        configs.forEach(config -> issuesByProject.put(config.project(), new IssueStore.Builder()));
+        for (final Issue issue : issues) {
+            final Path file = normalize(issue.file());
+            final MavenProject project = projectsByFile.get(file);
+            if (project == null) {
+                throw new MojoFailureException("PMD reported an issue in " + file
+                                               + " which does not belong to any project.");
+            }
+            issuesByProject.get(project).add(issue);
+        }
+
+        return issuesByProject.entrySet().stream()
+            .<Inspection>map(entry -> new PmdInspection(entry.getKey(), entry.getValue().build()))
+            .toList();
+    }
+
+    private static Path normalize(final Path file) {
+        return file.toAbsolutePath().normalize();
+    }
+
+}
@@ -0,0 +1,49 @@
+package ch.acanda.maven.coan.pmd;
+
+import net.sourceforge.pmd.lang.rule.RuleSet;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+/**
+ * Keeps the rule sets of a PMD configuration loaded, so an inspector that
+ * analyses the same project again and again, e.g. in the goal "watch", does
+ * not parse the configuration for every analysis. The rule sets are loaded
+ * again when the path or the modification time of the configuration file
+ * changes.
+ * <p>
+ * Rules are not thread-safe, so a cache must only be used by one analysis at
+ * a time.
+ * </p>
+ */
+public final class RuleSetCache {
+
+    private Path configPath;
+    private FileTime lastModified;
+    private List<RuleSet> ruleSets;
+
+    synchronized List<RuleSet> get(final Path configPath, final Log log) {
+        final FileTime modified = getLastModifiedTime(configPath);
+        if (ruleSets == null || modified == null || !configPath.equals(this.configPath)
+            || !modified.equals(lastModified)) {
+            ruleSets = PmdInspector.loadRuleSets(configPath, log);
+            this.configPath = configPath;
+            lastModified = modified;
+        }
+        return ruleSets;
+    }
+
+    private static FileTime getLastModifiedTime(final Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (final IOException e) {
+            // Loading the rule sets will report the actual problem.
+            return null;
+        }
+    }
+
+}
@@ -13,7 +13,6 @@ import org.apache.maven.plugin.MojoFailureException;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.IntStream;
@@ -32,8 +31,16 @@ public class BitBucketReport {
     private final List<Inspection> inspections;
 
     public BitBucketReport(final Path baseDir, final Inspection... inspections) {
+        this(baseDir, List.of(inspections));
+    }
+
+    public BitBucketReport(final Path baseDir, final IssueIndex index) {
+        this(baseDir, index.inspections());
+    }
+
+    private BitBucketReport(final Path baseDir, final List<Inspection> inspections) {
         this.baseDir = baseDir;
-        this.inspections = Arrays.asList(inspections);
+        this.inspections = inspections;
     }
 
     public void publishToBitBucket(final Pipeline pipeline) throws MojoFailureException {
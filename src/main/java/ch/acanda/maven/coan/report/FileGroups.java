@@ -0,0 +1,145 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import lombok.experimental.UtilityClass;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.BiConsumer;
+
+/**
+ * Groups issues by their file without collecting all issues into a map of
+ * lists first.
+ * <p>
+ * The issues of an inspection are usually kept in an {@link IssueStore},
+ * which only creates an issue object when an issue is read. Grouping them
+ * with a collector would create an object for every issue at once. Instead,
+ * the issues are ordered by an array of indexes and only the issues of the
+ * file that is currently written are held in memory.
+ * </p>
+ * <p>
+ * Lists without random access, e.g. the issues that were moved to disk, are
+ * read sequentially instead. They are usually already ordered by file, so
+ * their issues are passed on as they are read.
+ * </p>
+ */
+@UtilityClass
+class FileGroups {
+
+    /**
+     * Passes the issues of every file to the action, one file after the other
+     * and ordered by the path of the files. The issues of a file keep their
+     * order.
+     */
+    static void forEach(final List<? extends Issue> issues, final BiConsumer<Path, List<Issue>> action) {
+        if (issues instanceof RandomAccess) {
+            forEachByIndex(issues, action);
+        } else if (isOrderedByFile(issues)) {
+            forEachInOrder(issues, action);
+        } else {
+            forEachByIndex(IssueStore.copyOf(issues), action);
+        }
+    }
+
+    private static boolean isOrderedByFile(final Iterable<? extends Issue> issues) {
+        Path previous = null;
+        for (final Issue issue : issues) {
+            final Path file = issue.file();
+            if (previous != null && previous.compareTo(file) > 0) {
+                return false;
+            }
+            previous = file;
+        }
+        return true;
+    }
+
+    private static void forEachInOrder(final Iterable<? extends Issue> issues,
+        final BiConsumer<Path, List<Issue>> action) {
+        Path file = null;
+        List<Issue> fileIssues = new ArrayList<>();
+        for (final Issue issue : issues) {
+            if (!issue.file().equals(file)) {
+                if (file != null) {
+                    action.accept(file, fileIssues);
+                    fileIssues = new ArrayList<>();
+                }
+                file = issue.file();
+            }
+            fileIssues.add(issue);
+        }
+        if (file != null) {
+            action.accept(file, fileIssues);
+        }
+    }
+
+    private static void forEachByIndex(final List<? extends Issue> issues,
+        final BiConsumer<Path, List<Issue>> action) {
+        final Order order = orderByFile(issues);
+        for (int f = 0; f < order.files().size(); f++) {
+            final List<Issue> fileIssues = new ArrayList<>(order.starts()[f + 1] - order.starts()[f]);
+            for (int k = order.starts()[f]; k < order.starts()[f + 1]; k++) {
+                fileIssues.add(issues.get(order.issues()[k]));
+            }
+            action.accept(order.files().get(f), fileIssues);
+        }
+    }
+
+    /**
+     * Orders the indexes of the issues by the path of their files with a
+     * counting sort. The issues of a file keep their order. The list should
+     * support random access.
+     */
+    static Order orderByFile(final List<? extends Issue> issues) {
+        final int size = issues.size();
+        final Map<Path, Integer> fileIndexes = new HashMap<>();
+        final List<Path> files = new ArrayList<>();
+        final int[] fileOfIssue = new int[size];
+        for (int i = 0; i < size; i++) {
+            final Path file = issues.get(i).file();
+            fileOfIssue[i] = fileIndexes.computeIfAbsent(file, f -> {
+                files.add(f);
+                return files.size() - 1;
+            });
+        }
+
+        final List<Path> sortedFiles = new ArrayList<>(files);
+        sortedFiles.sort(null);
+        final int[] rank = new int[files.size()];
+        for (int r = 0; r < sortedFiles.size(); r++) {
+            rank[fileIndexes.get(sortedFiles.get(r))] = r;
+        }
+        final int[] starts = new int[files.size() + 1];
+        for (final int file : fileOfIssue) {
+            starts[rank[file] + 1]++;
+        }
+        for (int r = 0; r < files.size(); r++) {
+            starts[r + 1] += starts[r];
+        }
+        final int[] order = new int[size];
+        final int[] next = starts.clone();
+        for (int i = 0; i < size; i++) {
+            order[next[rank[fileOfIssue[i]]]++] = i;
+        }
+        return new Order(List.copyOf(sortedFiles), starts, order);
+    }
+
+    /**
+     * The indexes of issues ordered by file.
+     *
+     * @param files
+     *     The sorted files.
+     * @param starts
+     *     The position in {@code issues} of the first issue of every file,
+     *     followed by the number of issues.
+     * @param issues
+     *     The indexes of the issues.
+     */
+    record Order(List<Path> files, int[] starts, int[] issues) {
+    }
+
+}
@@ -6,23 +6,16 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.List;
-import java.util.LongSummaryStatistics;
-import java.util.Map;
-import java.util.TreeMap;
 
 import static java.nio.file.StandardOpenOption.APPEND;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.WRITE;
-import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.summarizingLong;
-import static java.util.stream.Collectors.toList;
 import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
 
 @SuppressWarnings("java:S1192" /* duplicated strings: creating constants for html tags makes the code less readable. */)
@@ -30,12 +23,16 @@ public class GitHubReport {
 
     private final MavenProject project;
     private final Path baseDir;
-    private final List<Inspection> inspections;
+    private final IssueIndex index;
 
     public GitHubReport(final MavenProject project, final Path baseDir, final Inspection... inspections) {
+        this(project, baseDir, IssueIndex.of(inspections));
+    }
+
+    public GitHubReport(final MavenProject project, final Path baseDir, final IssueIndex index) {
         this.project = project;
         this.baseDir = baseDir;
-        this.inspections = Arrays.asList(inspections);
+        this.index = index;
     }
 
     public void writeTo(final Path file) throws MojoFailureException {
@@ -46,6 +43,20 @@ public class GitHubReport {
         }
     }
 
+    /**
+     * Writes the report to {@code file} and appends a copy of it to
+     * {@code summaryFile}, so the report is only created once when it is
+     * needed in both places.
+     */
+    public void writeTo(final Path file, final Path summaryFile) throws MojoFailureException {
+        writeTo(file);
+        try (OutputStream out = Files.newOutputStream(summaryFile, CREATE, WRITE, APPEND)) {
+            Files.copy(file, out);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to append GitHub report to file " + summaryFile + ".", e);
+        }
+    }
+
     public void appendTo(final Path file) throws MojoFailureException {
         try (Writer out = Files.newBufferedWriter(file, CREATE, WRITE, APPEND)) {
             writeTo(out);
@@ -78,16 +89,14 @@ public class GitHubReport {
     }
 
     private void writeSummary(final PrintWriter markdown) {
-        final boolean foundIssues = inspections.stream().anyMatch(Inspection::foundIssues);
+        final boolean foundIssues = index.foundIssues();
         if (foundIssues) {
             markdown.println("## Summary");
             markdown.println();
-            inspections.stream()
-                .collect(groupingBy(Inspection::toolName, summarizingLong(Inspection::getNumberOfIssues)))
+            index.getNumberOfIssuesByTool()
                 .entrySet()
                 .stream()
                 .map(entry -> escapeHtml4(entry.getKey()) + " found " + numberOfIssues(entry.getValue()) + ".")
-                .sorted()
                 .forEachOrdered(toolSummary -> {
                     markdown.println(toolSummary);
                     markdown.println();
@@ -101,25 +110,19 @@ public class GitHubReport {
     }
 
     private void writeInspections(final PrintWriter markdown) {
-        final Map<MavenProject, List<Inspection>> inspectionsByProject = inspections.stream()
-            .filter(Inspection::foundIssues)
-            .collect(groupingBy(Inspection::project));
-        final boolean includeProjectName = inspectionsByProject.size() > 1;
-        inspectionsByProject
-            .entrySet()
-            .stream()
-            .sorted(comparing(e -> getProjectName(e.getKey())))
-            .forEachOrdered(entry -> writeInspections(entry.getKey(), entry.getValue(), includeProjectName, markdown));
-    }
-
-    private void writeInspections(final MavenProject project, final List<Inspection> inspections,
-        final boolean includeProjectName, final PrintWriter markdown) {
+        final List<IssueIndex.ProjectInspections> projects = index.getProjectsWithIssues();
+        final boolean includeProjectName = projects.size() > 1;
+        projects.forEach(project -> writeInspections(project, includeProjectName, markdown));
+    }
+
+    private void writeInspections(final IssueIndex.ProjectInspections project, final boolean includeProjectName,
+        final PrintWriter markdown) {
         if (includeProjectName) {
             markdown.print("## ");
-            markdown.println(escapeHtml4(getProjectName(project)));
+            markdown.println(escapeHtml4(project.name()));
             markdown.println();
         }
-        inspections.forEach(analysis -> writeAnalysis(analysis, includeProjectName, markdown));
+        project.inspections().forEach(analysis -> writeAnalysis(analysis, includeProjectName, markdown));
     }
 
     private void writeAnalysis(final Inspection inspection, final boolean isLevel3, final PrintWriter markdown) {
@@ -127,21 +130,13 @@ public class GitHubReport {
         markdown.print(escapeHtml4(inspection.toolName()));
         markdown.println(" Report");
         markdown.println();
-        inspection.issues()
-            .stream()
-            .collect(groupingBy(Issue::file, TreeMap::new, toList()))
-            .forEach((file, issues) -> writeIssues(file, issues, markdown));
+        index.forEachFile(inspection, (file, issues) -> writeIssues(file, issues, markdown));
     }
 
     private void writeIssues(final Path file, final List<? extends Issue> issues, final PrintWriter markdown) {
         markdown.print("- ");
         markdown.println(escapeHtml4(baseDir.relativize(file).toString().replace('\\', '/')));
-        issues.stream()
-            .sorted(comparing(Issue::severity)
-                .thenComparing(Issue::name)
-                .thenComparing(Issue::line)
-                .thenComparing(Issue::column))
-            .forEachOrdered(issue -> writeIssue(issue, markdown));
+        issues.forEach(issue -> writeIssue(issue, markdown));
         markdown.println();
     }
 
@@ -150,8 +145,7 @@ public class GitHubReport {
         return name == null ? project.getArtifactId() : name;
     }
 
-    private static String numberOfIssues(final LongSummaryStatistics summary) {
-        final long sum = summary.getSum();
+    private static String numberOfIssues(final long sum) {
         final String noun = sum == 1 ? " issue" : " issues";
         return sum + noun;
     }
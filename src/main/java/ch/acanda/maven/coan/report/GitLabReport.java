@@ -6,21 +6,17 @@ import ch.acanda.maven.coan.Issue.Severity;
 import com.fasterxml.jackson.jr.ob.JSON;
 import com.fasterxml.jackson.jr.ob.JSONComposer;
 import com.fasterxml.jackson.jr.ob.comp.ArrayComposer;
-import org.apache.commons.lang3.ArrayUtils;
 import org.apache.maven.plugin.MojoFailureException;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.UUID;
-
-import static java.lang.String.format;
+import java.util.stream.IntStream;
 
 /**
  * Creates a code quality report for GitLab.
@@ -29,6 +25,16 @@ import static java.lang.String.format;
  * GitLab code quality report format
  * </a>
  * </p>
+ * <p>
+ * The report is written without indentation. The fingerprints of the
+ * issues are calculated in parallel in batches of {@value #BATCH_SIZE}
+ * issues, so the report of a reactor with hundreds of thousands of issues
+ * is written quickly without keeping all fingerprints in memory. Every
+ * chunk of {@value #CHUNK_SIZE} issues of a batch gets its own
+ * {@link IssueFingerprint}, so the threads of the common pool do not keep
+ * thread-local instances, and with them the class loader of the plugin,
+ * after the report has been written.
+ * </p>
  */
 public class GitLabReport {
 
@@ -41,29 +47,36 @@ public class GitLabReport {
         Severity.IGNORE, "info"
     );
 
+    private static final int BATCH_SIZE = 8192;
+    private static final int CHUNK_SIZE = 1024;
+
     private final Path baseDir;
     private final List<Inspection> inspections;
 
     public GitLabReport(final Path baseDir, final Inspection... inspections) {
+        this(baseDir, List.of(inspections));
+    }
+
+    public GitLabReport(final Path baseDir, final IssueIndex index) {
+        this(baseDir, index.inspections());
+    }
+
+    private GitLabReport(final Path baseDir, final List<Inspection> inspections) {
         this.baseDir = baseDir;
-        this.inspections = Arrays.asList(inspections);
+        this.inspections = inspections;
     }
 
 
     public void writeTo(final Path file) throws MojoFailureException {
         try {
-            final ArrayComposer<JSONComposer<OutputStream>> json =
-                JSON.std
-                    .with(JSON.Feature.PRETTY_PRINT_OUTPUT)
-                    .composeTo(file.toFile())
-                    .startArray();
-
+            final ArrayComposer<JSONComposer<OutputStream>> json = JSON.std.composeTo(file.toFile()).startArray();
+            final Batch batch = new Batch(json);
             for (final Inspection inspection : inspections) {
                 for (final Issue issue : inspection.issues()) {
-                    composeIssue(json, inspection, issue);
+                    batch.add(inspection, issue);
                 }
             }
-
+            batch.flush();
             json.end().finish().close();
         } catch (final IOException e) {
             throw new MojoFailureException("Failed to write Gitlab Code Quality report to file " + file + ".", e);
@@ -71,31 +84,79 @@ public class GitLabReport {
 
     }
 
-    private void composeIssue(final ArrayComposer<JSONComposer<OutputStream>> json, final Inspection inspection,
-        final Issue issue) throws IOException {
-        final String description =
-            format(Locale.ENGLISH, "%s [%s]: %s", inspection.toolName(), issue.name(), issue.description());
-        final String path = baseDir.relativize(issue.file()).toString().replace('\\', '/');
-        final String fingerprint = createFingerprint(issue.name(), path, issue.line(), issue.column());
-        json.startObject()
-            .put("description", description)
-            .put("fingerprint", fingerprint)
-            .put("severity", SEVERITIES.get(issue.severity()))
-            .startObjectField("location")
-            .put("path", path)
-            .startObjectField("lines")
-            .put("begin", issue.line())
-            .end()
-            .end()
-            .end();
+    private record RelativePath(String path, byte[] bytes) {
     }
 
-    private static String createFingerprint(final String name, final String path, final int line, final int column) {
-        final byte[] bytes = ArrayUtils.addAll(ArrayUtils.addAll(
-                name.getBytes(StandardCharsets.UTF_8),
-                path.getBytes(StandardCharsets.UTF_8)),
-            ByteBuffer.allocate(Integer.BYTES * 2).putInt(line).putInt(column).array());
-        return UUID.nameUUIDFromBytes(bytes).toString();
+    /**
+     * Collects issues until the batch is full, calculates their fingerprints
+     * in parallel and then writes them in their original order. The relative
+     * path of every file is only calculated once.
+     */
+    private final class Batch {
+
+        private final ArrayComposer<JSONComposer<OutputStream>> json;
+        private final Map<Path, RelativePath> paths = new HashMap<>();
+        private final String[] toolNames = new String[BATCH_SIZE];
+        private final Issue[] issues = new Issue[BATCH_SIZE];
+        private final RelativePath[] issuePaths = new RelativePath[BATCH_SIZE];
+        private final String[] fingerprints = new String[BATCH_SIZE];
+        private final StringBuilder description = new StringBuilder();
+        private int size;
+
+        Batch(final ArrayComposer<JSONComposer<OutputStream>> json) {
+            this.json = json;
+        }
+
+        void add(final Inspection inspection, final Issue issue) throws IOException {
+            toolNames[size] = inspection.toolName();
+            issues[size] = issue;
+            issuePaths[size] = paths.computeIfAbsent(issue.file(), file -> {
+                final String path = baseDir.relativize(file).toString().replace('\\', '/');
+                return new RelativePath(path, path.getBytes(StandardCharsets.UTF_8));
+            });
+            size++;
+            if (size == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            final int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            final IntStream indexes = IntStream.range(0, chunks);
+            (chunks > 1 ? indexes.parallel() : indexes).forEach(this::calculateFingerprints);
+            for (int i = 0; i < size; i++) {
+                composeIssue(toolNames[i], issues[i], issuePaths[i].path(), fingerprints[i]);
+            }
+            Arrays.fill(issues, 0, size, null);
+            size = 0;
+        }
+
+        private void calculateFingerprints(final int chunk) {
+            final IssueFingerprint fingerprint = new IssueFingerprint();
+            final int end = Math.min(size, (chunk + 1) * CHUNK_SIZE);
+            for (int i = chunk * CHUNK_SIZE; i < end; i++) {
+                final Issue issue = issues[i];
+                fingerprints[i] = fingerprint.of(issue.name(), issuePaths[i].bytes(), issue.line(), issue.column());
+            }
+        }
+
+        private void composeIssue(final String toolName, final Issue issue, final String path,
+            final String fingerprint) throws IOException {
+            description.setLength(0);
+            description.append(toolName).append(" [").append(issue.name()).append("]: ").append(issue.description());
+            json.startObject()
+                .put("description", description.toString())
+                .put("fingerprint", fingerprint)
+                .put("severity", SEVERITIES.get(issue.severity()))
+                .startObjectField("location")
+                .put("path", path)
+                .startObjectField("lines")
+                .put("begin", issue.line())
+                .end()
+                .end()
+                .end();
+        }
+
     }
 
 }
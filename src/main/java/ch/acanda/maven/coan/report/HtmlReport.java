@@ -10,14 +10,8 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
 import java.util.List;
-import java.util.LongSummaryStatistics;
-import java.util.Map;
 
-import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.groupingBy;
-import static java.util.stream.Collectors.summarizingLong;
 import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
 
 @SuppressWarnings("java:S1192" /* duplicated strings: creating constants for html tags makes the code less readable. */)
@@ -25,12 +19,16 @@ public class HtmlReport {
 
     private final MavenProject project;
     private final Path baseDir;
-    private final List<Inspection> inspections;
+    private final IssueIndex index;
 
     public HtmlReport(final MavenProject project, final Path baseDir, final Inspection... inspections) {
+        this(project, baseDir, IssueIndex.of(inspections));
+    }
+
+    public HtmlReport(final MavenProject project, final Path baseDir, final IssueIndex index) {
         this.project = project;
         this.baseDir = baseDir;
-        this.inspections = Arrays.asList(inspections);
+        this.index = index;
     }
 
     public void writeTo(final Path file) throws MojoFailureException {
@@ -70,16 +68,14 @@ public class HtmlReport {
     }
 
     private void writeSummary(final PrintWriter html) {
-        final boolean foundIssues = inspections.stream().anyMatch(Inspection::foundIssues);
+        final boolean foundIssues = index.foundIssues();
         html.println("<section>");
         if (foundIssues) {
             html.println("<h2>Summary</h2>");
-            inspections.stream()
-                .collect(groupingBy(Inspection::toolName, summarizingLong(Inspection::getNumberOfIssues)))
+            index.getNumberOfIssuesByTool()
                 .entrySet()
                 .stream()
                 .map(entry -> escapeHtml4(entry.getKey()) + " found " + numberOfIssues(entry.getValue()) + ".")
-                .sorted()
                 .forEachOrdered(toolSummary -> {
                     html.print("<p>");
                     html.print(toolSummary);
@@ -93,27 +89,21 @@ public class HtmlReport {
     }
 
     private void writeInspections(final PrintWriter html) {
-        final Map<MavenProject, List<Inspection>> inspectionsByProject = inspections.stream()
-            .filter(Inspection::foundIssues)
-            .collect(groupingBy(Inspection::project));
-        final boolean includeProjectName = inspectionsByProject.size() > 1;
-        inspectionsByProject
-            .entrySet()
-            .stream()
-            .sorted(comparing(e -> getProjectName(e.getKey())))
-            .forEachOrdered(entry -> writeInspections(entry.getKey(), entry.getValue(), includeProjectName, html));
+        final List<IssueIndex.ProjectInspections> projects = index.getProjectsWithIssues();
+        final boolean includeProjectName = projects.size() > 1;
+        projects.forEach(project -> writeInspections(project, includeProjectName, html));
     }
 
-    private void writeInspections(final MavenProject project, final List<Inspection> inspections,
-        final boolean includeProjectName, final PrintWriter html) {
+    private void writeInspections(final IssueIndex.ProjectInspections project, final boolean includeProjectName,
+        final PrintWriter html) {
         if (includeProjectName) {
             html.println("<section>");
             html.println("<details open=\"open\">");
             html.print("<summary>");
-            html.print(escapeHtml4(getProjectName(project)));
+            html.print(escapeHtml4(project.name()));
             html.println("</summary>");
         }
-        inspections.forEach(inspection -> writeAnalysis(inspection, html));
+        project.inspections().forEach(inspection -> writeAnalysis(inspection, html));
         if (includeProjectName) {
             html.println("</details>");
             html.println("</section>");
@@ -125,10 +115,7 @@ public class HtmlReport {
         html.print("<h2>");
         html.print(escapeHtml4(inspection.toolName()));
         html.println(" Report</h2>");
-        inspection.issues()
-            .stream()
-            .collect(groupingBy(Issue::file))
-            .forEach((file, issues) -> writeIssues(file, issues, html));
+        index.forEachFile(inspection, (file, issues) -> writeIssues(file, issues, html));
         html.println("</section>");
     }
 
@@ -137,12 +124,7 @@ public class HtmlReport {
         html.print(escapeHtml4(baseDir.relativize(file).toString().replace('\\', '/')));
         html.println("</h3>");
         html.println("<ul>");
-        issues.stream()
-            .sorted(comparing(Issue::severity)
-                .thenComparing(Issue::name)
-                .thenComparing(Issue::line)
-                .thenComparing(Issue::column))
-            .forEachOrdered(issue -> writeIssue(issue, html));
+        issues.forEach(issue -> writeIssue(issue, html));
         html.println("</ul>");
     }
 
@@ -151,14 +133,21 @@ public class HtmlReport {
         return name == null ? project.getArtifactId() : name;
     }
 
-    private static String numberOfIssues(final LongSummaryStatistics summary) {
-        final long sum = summary.getSum();
+    private static String numberOfIssues(final long sum) {
         final String noun = sum == 1 ? " issue" : " issues";
         return sum + noun;
     }
 
-    private static void writeHead(final PrintWriter html) {
-        html.println("""
+    static void writeHead(final PrintWriter html) {
+        writeHead(html, "");
+    }
+
+    /**
+     * Writes the head with the common style sheet followed by the additional
+     * style rules.
+     */
+    static void writeHead(final PrintWriter html, final String style) {
+        html.print("""
             <head>
             <meta charset="utf-8"/>
             <meta name="viewport" content="width=device-width, initial-scale=1.0"/>
@@ -191,12 +180,15 @@ public class HtmlReport {
               .label.medium { background-color: #FFD600; color: black; }
               .label.high { background-color: #FFAB00; color: black; }
               .label.highest { background-color: #D50000; color: white; }
+            """);
+        html.print(style);
+        html.println("""
             </style>
             </head>
             """);
     }
 
-    private static void writeIssue(final Issue issue, final PrintWriter html) {
+    static void writeIssue(final Issue issue, final PrintWriter html) {
         html.print("<li><span class=\"label ");
         html.print(issue.severity().getName());
         html.print("\">");
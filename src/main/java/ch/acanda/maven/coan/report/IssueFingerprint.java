@@ -0,0 +1,72 @@
+package ch.acanda.maven.coan.report;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Calculates the fingerprint of an issue from its rule, path, line and
+ * column. The fingerprint is the same name based UUID as
+ * {@link UUID#nameUUIDFromBytes(byte[])} of these values, but the digest
+ * and the buffers are reused for all issues.
+ * <p>
+ * An instance is not thread-safe.
+ * </p>
+ */
+final class IssueFingerprint {
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final MessageDigest md5;
+    private final byte[] position = new byte[Integer.BYTES * 2];
+    private final char[] uuid = new char[36];
+
+    IssueFingerprint() {
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new InternalError("MD5 not supported", e);
+        }
+    }
+
+    /**
+     * Returns the fingerprint as a UUID string.
+     */
+    String of(final String name, final byte[] path, final int line, final int column) {
+        return new String(chars(name, path, line, column));
+    }
+
+    /**
+     * Returns the fingerprint as the characters of a UUID string. The array
+     * is overwritten by the next call.
+     */
+    char[] chars(final String name, final byte[] path, final int line, final int column) {
+        md5.update(name.getBytes(StandardCharsets.UTF_8));
+        md5.update(path);
+        putInt(line, 0);
+        putInt(column, Integer.BYTES);
+        md5.update(position);
+        final byte[] hash = md5.digest();
+        // Sets the version to 3 (name based with MD5) and the variant to IETF like UUID.nameUUIDFromBytes.
+        hash[6] = (byte) (hash[6] & 0x0f | 0x30);
+        hash[8] = (byte) (hash[8] & 0x3f | 0x80);
+        int c = 0;
+        for (int i = 0; i < 16; i++) {
+            if (i == 4 || i == 6 || i == 8 || i == 10) {
+                uuid[c++] = '-';
+            }
+            uuid[c++] = HEX_DIGITS[hash[i] >> 4 & 0x0f];
+            uuid[c++] = HEX_DIGITS[hash[i] & 0x0f];
+        }
+        return uuid;
+    }
+
+    private void putInt(final int value, final int offset) {
+        position[offset] = (byte) (value >>> 24);
+        position[offset + 1] = (byte) (value >>> 16);
+        position[offset + 2] = (byte) (value >>> 8);
+        position[offset + 3] = (byte) value;
+    }
+
+}
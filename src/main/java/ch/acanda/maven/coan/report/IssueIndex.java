@@ -0,0 +1,225 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.project.MavenProject;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+
+import static java.util.Comparator.comparing;
+
+/**
+ * The issues of all inspections of a build, ordered once for all reports.
+ * <p>
+ * The index groups the inspections by project and the issues of every
+ * inspection by file, and orders the issues of a file by severity, rule,
+ * line and column. It only keeps the order as arrays of indexes into the
+ * issues of the inspections, so it does not hold an issue object for every
+ * issue. The index is immutable, so several reports can read it at the same
+ * time.
+ * </p>
+ * <p>
+ * Issues that do not support random access, e.g. issues that were moved to
+ * disk, cannot be ordered by index. They are read one file after the other
+ * and the issues of a file are sorted when they are read.
+ * </p>
+ */
+public final class IssueIndex {
+
+    private static final Comparator<Issue> ISSUE_ORDER = Comparator.<Issue>comparingInt(i -> i.severity().ordinal())
+        .thenComparing(Issue::name)
+        .thenComparingInt(Issue::line)
+        .thenComparingInt(Issue::column);
+
+    private final List<Inspection> inspections;
+    private final Map<String, Long> numberOfIssuesByTool;
+    private final List<ProjectInspections> projectsWithIssues;
+    private final Map<Inspection, FileGroups.Order> orders;
+
+    private IssueIndex(final List<Inspection> inspections) {
+        this.inspections = List.copyOf(inspections);
+        final Map<String, Long> issuesByTool = new TreeMap<>();
+        final Map<MavenProject, List<Inspection>> inspectionsByProject = new LinkedHashMap<>();
+        final Map<Inspection, FileGroups.Order> issueOrders = new IdentityHashMap<>();
+        for (final Inspection inspection : inspections) {
+            issuesByTool.merge(inspection.toolName(), (long) inspection.getNumberOfIssues(), Long::sum);
+            if (inspection.foundIssues()) {
+                inspectionsByProject.computeIfAbsent(inspection.project(), p -> new ArrayList<>()).add(inspection);
+                if (inspection.issues() instanceof RandomAccess) {
+                    issueOrders.put(inspection, order(inspection.issues()));
+                }
+            }
+        }
+        numberOfIssuesByTool = Collections.unmodifiableMap(issuesByTool);
+        projectsWithIssues = inspectionsByProject.entrySet().stream()
+            .map(entry -> new ProjectInspections(entry.getKey(), List.copyOf(entry.getValue())))
+            .sorted(comparing(ProjectInspections::name))
+            .toList();
+        orders = issueOrders;
+    }
+
+    public static IssueIndex of(final Inspection... inspections) {
+        return of(Arrays.asList(inspections));
+    }
+
+    public static IssueIndex of(final List<Inspection> inspections) {
+        return new IssueIndex(inspections);
+    }
+
+    /**
+     * Returns all inspections in their original order.
+     */
+    public List<Inspection> inspections() {
+        return inspections;
+    }
+
+    public boolean foundIssues() {
+        return !projectsWithIssues.isEmpty();
+    }
+
+    /**
+     * Returns the number of issues of every tool, ordered by the name of the
+     * tool.
+     */
+    public Map<String, Long> getNumberOfIssuesByTool() {
+        return numberOfIssuesByTool;
+    }
+
+    /**
+     * Returns the projects with at least one issue, ordered by their name.
+     * Every project only contains its inspections with issues.
+     */
+    public List<ProjectInspections> getProjectsWithIssues() {
+        return projectsWithIssues;
+    }
+
+    /**
+     * Passes the issues of every file of the inspection to the action, one
+     * file after the other and ordered by the path of the files. The issues
+     * of a file are ordered by severity, rule, line and column.
+     */
+    public void forEachFile(final Inspection inspection, final BiConsumer<Path, List<Issue>> action) {
+        final FileGroups.Order order = orders.get(inspection);
+        if (order == null) {
+            FileGroups.forEach(inspection.issues(), (file, issues) -> {
+                issues.sort(ISSUE_ORDER);
+                action.accept(file, issues);
+            });
+            return;
+        }
+        final List<? extends Issue> issues = inspection.issues();
+        for (int f = 0; f < order.files().size(); f++) {
+            final List<Issue> fileIssues = new ArrayList<>(order.starts()[f + 1] - order.starts()[f]);
+            for (int k = order.starts()[f]; k < order.starts()[f + 1]; k++) {
+                fileIssues.add(issues.get(order.issues()[k]));
+            }
+            action.accept(order.files().get(f), fileIssues);
+        }
+    }
+
+    /**
+     * Orders the issues by file and the issues of every file by severity,
+     * rule, line and column. The sort keys are copied into primitive arrays
+     * first, so the comparisons neither create issue objects nor box the
+     * lines and columns.
+     */
+    private static FileGroups.Order order(final List<? extends Issue> issues) {
+        final FileGroups.Order order = FileGroups.orderByFile(issues);
+        final int size = issues.size();
+        final int[] severities = new int[size];
+        final int[] names = new int[size];
+        final int[] lines = new int[size];
+        final int[] columns = new int[size];
+        final Map<String, Integer> nameIndexes = new HashMap<>();
+        final List<String> nameTable = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final Issue issue = issues.get(i);
+            severities[i] = issue.severity().ordinal();
+            names[i] = nameIndexes.computeIfAbsent(issue.name(), name -> {
+                nameTable.add(name);
+                return nameTable.size() - 1;
+            });
+            lines[i] = issue.line();
+            columns[i] = issue.column();
+        }
+        final List<String> sortedNames = new ArrayList<>(nameTable);
+        sortedNames.sort(null);
+        final int[] nameRanks = new int[nameTable.size()];
+        for (int r = 0; r < sortedNames.size(); r++) {
+            nameRanks[nameIndexes.get(sortedNames.get(r))] = r;
+        }
+
+        final IntBinaryOperator comparator = (a, b) -> {
+            int result = Integer.compare(severities[a], severities[b]);
+            if (result == 0) {
+                result = Integer.compare(nameRanks[names[a]], nameRanks[names[b]]);
+            }
+            if (result == 0) {
+                result = Integer.compare(lines[a], lines[b]);
+            }
+            if (result == 0) {
+                result = Integer.compare(columns[a], columns[b]);
+            }
+            return result;
+        };
+        final int[] indexes = order.issues();
+        final int[] buffer = new int[size];
+        for (int f = 0; f < order.files().size(); f++) {
+            mergeSort(indexes, buffer, order.starts()[f], order.starts()[f + 1], comparator);
+        }
+        return order;
+    }
+
+    /**
+     * Sorts {@code values} from {@code from} (inclusive) to {@code to}
+     * (exclusive). The sort is stable.
+     */
+    private static void mergeSort(final int[] values, final int[] buffer, final int from, final int to,
+        final IntBinaryOperator comparator) {
+        if (to - from < 2) {
+            return;
+        }
+        final int middle = (from + to) >>> 1;
+        mergeSort(values, buffer, from, middle, comparator);
+        mergeSort(values, buffer, middle, to, comparator);
+        if (comparator.applyAsInt(values[middle - 1], values[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(values, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int k = from; k < to; k++) {
+            if (right >= to || left < middle && comparator.applyAsInt(buffer[left], buffer[right]) <= 0) {
+                values[k] = buffer[left++];
+            } else {
+                values[k] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * The inspections of a project that found issues.
+     */
+    public record ProjectInspections(MavenProject project, List<Inspection> inspections) {
+
+        public String name() {
+            final String name = project.getName();
+            return name == null ? project.getArtifactId() : name;
+        }
+
+    }
+
+}
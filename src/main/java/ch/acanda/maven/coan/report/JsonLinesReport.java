@@ -0,0 +1,126 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Creates a report in the <a href="https://jsonlines.org/">JSON Lines</a>
+ * format with one compact JSON object per issue, so other tools can read
+ * the issues one after the other without parsing a single huge document.
+ * <p>
+ * Every object has the fields {@code tool}, {@code rule}, {@code severity},
+ * {@code path}, {@code line}, {@code column}, {@code message} and
+ * {@code fingerprint}. The fingerprint is the same as in the GitLab Code
+ * Quality report. The report is written directly to a buffered writer
+ * without creating a JSON tree or a string per issue.
+ * </p>
+ */
+public class JsonLinesReport {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final Path baseDir;
+    private final List<Inspection> inspections;
+
+    public JsonLinesReport(final Path baseDir, final Inspection... inspections) {
+        this(baseDir, List.of(inspections));
+    }
+
+    public JsonLinesReport(final Path baseDir, final IssueIndex index) {
+        this(baseDir, index.inspections());
+    }
+
+    private JsonLinesReport(final Path baseDir, final List<Inspection> inspections) {
+        this.baseDir = baseDir;
+        this.inspections = inspections;
+    }
+
+    public void writeTo(final Path file) throws MojoFailureException {
+        try (Writer out = new BufferedWriter(
+            new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writeTo(out);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to write JSON Lines report to file " + file + ".", e);
+        }
+    }
+
+    private void writeTo(final Writer out) throws IOException {
+        final IssueFingerprint fingerprint = new IssueFingerprint();
+        Path lastFile = null;
+        String path = null;
+        byte[] pathBytes = null;
+        for (final Inspection inspection : inspections) {
+            for (final Issue issue : inspection.issues()) {
+                // The issues of a file are usually next to each other, so the path is only relativized once.
+                if (!issue.file().equals(lastFile)) {
+                    lastFile = issue.file();
+                    path = baseDir.relativize(lastFile).toString().replace('\\', '/');
+                    pathBytes = path.getBytes(StandardCharsets.UTF_8);
+                }
+                out.write("{\"tool\":");
+                writeString(out, inspection.toolName());
+                out.write(",\"rule\":");
+                writeString(out, issue.name());
+                out.write(",\"severity\":\"");
+                out.write(issue.severity().getName());
+                out.write("\",\"path\":");
+                writeString(out, path);
+                out.write(",\"line\":");
+                out.write(Integer.toString(issue.line()));
+                out.write(",\"column\":");
+                out.write(Integer.toString(issue.column()));
+                out.write(",\"message\":");
+                writeString(out, issue.description());
+                out.write(",\"fingerprint\":\"");
+                out.write(fingerprint.chars(issue.name(), pathBytes, issue.line(), issue.column()));
+                out.write("\"}\n");
+            }
+        }
+    }
+
+    private static void writeString(final Writer out, final String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                out.write(value, start, i - start);
+                writeEscaped(out, c);
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    private static void writeEscaped(final Writer out, final char c) throws IOException {
+        switch (c) {
+            case '"' -> out.write("\\\"");
+            case '\\' -> out.write("\\\\");
+            case '\n' -> out.write("\\n");
+            case '\r' -> out.write("\\r");
+            case '\t' -> out.write("\\t");
+            default -> {
+                out.write("\\u00");
+                out.write(HEX_DIGITS[c >> 4]);
+                out.write(HEX_DIGITS[c & 0x0f]);
+            }
+        }
+    }
+
+}
@@ -6,7 +6,6 @@ import lombok.experimental.UtilityClass;
 import org.apache.maven.plugin.logging.Log;
 
 import java.nio.file.Path;
-import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static java.util.Comparator.comparing;
@@ -28,15 +27,13 @@ public class LogReport {
         if (inspection.foundIssues()) {
             final String summary = "%s found %s in %s:";
             log.warn(format(ENGLISH, summary, inspection.toolName(), numberOfIssues(inspection), artifactId));
-            inspection.issues().stream()
-                .collect(Collectors.groupingBy(Issue::file))
-                .forEach((file, fileIssues) -> {
-                    log.warn(baseDir.relativize(file).toString());
-                    fileIssues.stream()
-                        .sorted(comparing(Issue::name).thenComparing(Issue::line))
-                        .map(LogReport::formatIssue)
-                        .forEach(log::warn);
-                });
+            FileGroups.forEach(inspection.issues(), (file, fileIssues) -> {
+                log.warn(baseDir.relativize(file).toString());
+                fileIssues.stream()
+                    .sorted(comparing(Issue::name).thenComparing(Issue::line))
+                    .map(LogReport::formatIssue)
+                    .forEach(log::warn);
+            });
         } else {
             log.info(inspection.toolName() + " did not find any issues in " + artifactId + ".");
         }
@@ -0,0 +1,299 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
+
+/**
+ * Creates an HTML report that is split into several pages, so browsers can
+ * open the report of a reactor with a huge number of issues.
+ * <p>
+ * The report consists of a small page {@code index.html} with the number of
+ * issues per tool and per project, and of one page per project and tool with
+ * the issues of at most {@value #FILES_PER_PAGE} files. The pages are written
+ * one after the other, so only the issues of a single file are in memory at
+ * any time.
+ * </p>
+ */
+@SuppressWarnings("java:S1192" /* duplicated strings: creating constants for html tags makes the code less readable. */)
+public class PagedHtmlReport {
+
+    private static final int FILES_PER_PAGE = 500;
+
+    private static final String STYLE = """
+          nav { margin: 1em; }
+          table { border-collapse: collapse; }
+          th, td { text-align: left; padding: 0.3em 1em 0.3em 0; }
+        """;
+
+    private final MavenProject project;
+    private final Path baseDir;
+    private final IssueIndex index;
+    private final int filesPerPage;
+
+    public PagedHtmlReport(final MavenProject project, final Path baseDir, final IssueIndex index) {
+        this(project, baseDir, index, FILES_PER_PAGE);
+    }
+
+    PagedHtmlReport(final MavenProject project, final Path baseDir, final IssueIndex index, final int filesPerPage) {
+        this.project = project;
+        this.baseDir = baseDir;
+        this.index = index;
+        this.filesPerPage = filesPerPage;
+    }
+
+    /**
+     * Writes the pages into the directory and returns the path of the index
+     * page. The pages of a previous report in the directory are deleted.
+     */
+    public Path writeTo(final Path directory) throws MojoFailureException {
+        try {
+            Files.createDirectories(directory);
+            deletePages(directory);
+            final List<ProjectPages> projects = new ArrayList<>();
+            final List<IssueIndex.ProjectInspections> projectsWithIssues = index.getProjectsWithIssues();
+            for (int p = 0; p < projectsWithIssues.size(); p++) {
+                projects.add(writeProjectPages(directory, p + 1, projectsWithIssues.get(p)));
+            }
+            final Path indexPage = directory.resolve("index.html");
+            writePage(indexPage, html -> writeIndex(projects, html));
+            return indexPage;
+        } catch (final IOException | UncheckedIOException e) {
+            throw new MojoFailureException("Failed to write HTML report to directory " + directory + ".", e);
+        }
+    }
+
+    private static void deletePages(final Path directory) throws IOException {
+        try (DirectoryStream<Path> pages = Files.newDirectoryStream(directory, "*.html")) {
+            for (final Path page : pages) {
+                Files.delete(page);
+            }
+        }
+    }
+
+    private ProjectPages writeProjectPages(final Path directory, final int number,
+        final IssueIndex.ProjectInspections projectInspections) throws IOException {
+        final List<ToolPages> tools = new ArrayList<>();
+        final String prefix = String.format(Locale.ENGLISH, "%03d-%s", number,
+            projectInspections.project().getArtifactId().replaceAll("[^A-Za-z0-9._-]", "_"));
+        for (final Inspection inspection : projectInspections.inspections()) {
+            final String toolPrefix = prefix + "-" + inspection.toolName().toLowerCase(Locale.ENGLISH)
+                .replaceAll("[^a-z0-9._-]", "_");
+            try (PageSequence pages = new PageSequence(directory, toolPrefix, projectInspections.name(), inspection)) {
+                index.forEachFile(inspection, pages::write);
+                pages.finishPage();
+                tools.add(new ToolPages(inspection.toolName(), inspection.getNumberOfIssues(), pages.names()));
+            }
+        }
+        return new ProjectPages(projectInspections.name(), tools);
+    }
+
+    private void writeIndex(final List<ProjectPages> projects, final PrintWriter html) {
+        html.print("<h1>Code Analysis for ");
+        html.print(escapeHtml4(getProjectName(project)));
+        final String version = project.getVersion();
+        if (version != null) {
+            html.print(" ");
+            html.print(version);
+        }
+        html.println("</h1>");
+        html.println("<section>");
+        if (index.foundIssues()) {
+            html.println("<h2>Summary</h2>");
+            for (final Map.Entry<String, Long> entry : index.getNumberOfIssuesByTool().entrySet()) {
+                html.print("<p>");
+                html.print(escapeHtml4(entry.getKey()));
+                html.print(" found ");
+                html.print(numberOfIssues(entry.getValue()));
+                html.println(".</p>");
+            }
+            html.println("<table>");
+            html.println("<tr><th>Project</th><th>Tool</th><th>Issues</th><th>Pages</th></tr>");
+            for (final ProjectPages projectPages : projects) {
+                for (final ToolPages tool : projectPages.tools()) {
+                    html.print("<tr><td>");
+                    html.print(escapeHtml4(projectPages.name()));
+                    html.print("</td><td>");
+                    html.print(escapeHtml4(tool.toolName()));
+                    html.print("</td><td>");
+                    html.print(tool.numberOfIssues());
+                    html.print("</td><td>");
+                    for (int i = 0; i < tool.pages().size(); i++) {
+                        html.print(i == 0 ? "" : " ");
+                        html.print("<a href=\"");
+                        html.print(tool.pages().get(i));
+                        html.print("\">");
+                        html.print(i + 1);
+                        html.print("</a>");
+                    }
+                    html.println("</td></tr>");
+                }
+            }
+            html.println("</table>");
+        } else {
+            html.println("<h2>Congratulations!</h2>");
+            html.println("<p>The code analysers did not find any issues.</p>");
+        }
+        html.println("</section>");
+    }
+
+    private static void writePage(final Path file, final PageContent content) throws IOException {
+        try (PrintWriter html = new PrintWriter(Files.newBufferedWriter(file, UTF_8))) {
+            writePageStart(html);
+            content.write(html);
+            writePageEnd(html);
+            if (html.checkError()) {
+                throw new IOException("Failed to write " + file + ".");
+            }
+        }
+    }
+
+    private static void writePageStart(final PrintWriter html) {
+        html.println("<!DOCTYPE html>");
+        html.println("<html lang=\"en\">");
+        HtmlReport.writeHead(html, STYLE);
+        html.println("<body>");
+    }
+
+    private static void writePageEnd(final PrintWriter html) {
+        html.println("</body>");
+        html.println("</html>");
+    }
+
+    private static String getProjectName(final MavenProject project) {
+        final String name = project.getName();
+        return name == null ? project.getArtifactId() : name;
+    }
+
+    private static String numberOfIssues(final long sum) {
+        final String noun = sum == 1 ? " issue" : " issues";
+        return sum + noun;
+    }
+
+    @FunctionalInterface
+    private interface PageContent {
+        void write(PrintWriter html);
+    }
+
+    private record ProjectPages(String name, List<ToolPages> tools) {
+    }
+
+    private record ToolPages(String toolName, int numberOfIssues, List<String> pages) {
+    }
+
+    /**
+     * Writes the files of an inspection to pages with a limited number of
+     * files. A page is started with its first file
+     * and finished when it is full, so the page is never kept in memory.
+     * Closing the sequence closes the current page without finishing it, so
+     * the file is not left open when writing a page fails.
+     */
+    private final class PageSequence implements AutoCloseable {
+
+        private final Path directory;
+        private final String prefix;
+        private final String projectName;
+        private final Inspection inspection;
+        private final List<String> names = new ArrayList<>();
+        private PrintWriter page;
+        private int filesOnPage;
+
+        PageSequence(final Path directory, final String prefix, final String projectName,
+            final Inspection inspection) {
+            this.directory = directory;
+            this.prefix = prefix;
+            this.projectName = projectName;
+            this.inspection = inspection;
+        }
+
+        void write(final Path file, final List<Issue> issues) {
+            if (page == null) {
+                startPage();
+            }
+            page.print("<h3>");
+            page.print(escapeHtml4(baseDir.relativize(file).toString().replace('\\', '/')));
+            page.println("</h3>");
+            page.println("<ul>");
+            issues.forEach(issue -> HtmlReport.writeIssue(issue, page));
+            page.println("</ul>");
+            filesOnPage++;
+            if (filesOnPage == filesPerPage) {
+                finishPage();
+            }
+        }
+
+        List<String> names() {
+            return names;
+        }
+
+        private void startPage() {
+            final String name = prefix + "-" + (names.size() + 1) + ".html";
+            names.add(name);
+            try {
+                page = new PrintWriter(Files.newBufferedWriter(directory.resolve(name), UTF_8));
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            writePageStart(page);
+            page.println("<nav><a href=\"index.html\">Summary</a></nav>");
+            page.print("<h1>");
+            page.print(escapeHtml4(projectName));
+            page.println("</h1>");
+            page.println("<section>");
+            page.print("<h2>");
+            page.print(escapeHtml4(inspection.toolName()));
+            page.print(" Report");
+            if (names.size() > 1) {
+                page.print(" (page ");
+                page.print(names.size());
+                page.print(")");
+            }
+            page.println("</h2>");
+            filesOnPage = 0;
+        }
+
+        /**
+         * Finishes the current page, if there is one.
+         *
+         * @throws UncheckedIOException if the page could not be written.
+         */
+        void finishPage() {
+            if (page == null) {
+                return;
+            }
+            page.println("</section>");
+            writePageEnd(page);
+            page.close();
+            final boolean failed = page.checkError();
+            page = null;
+            if (failed) {
+                throw new UncheckedIOException(new IOException("Failed to write " + names.get(names.size() - 1)));
+            }
+        }
+
+        @Override
+        public void close() {
+            if (page != null) {
+                page.close();
+                page = null;
+            }
+        }
+
+    }
+
+}
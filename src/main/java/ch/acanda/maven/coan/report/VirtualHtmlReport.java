@@ -0,0 +1,329 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
+import static org.apache.commons.text.StringEscapeUtils.escapeJson;
+
+/**
+ * Creates a single HTML file that opens quickly even with hundreds of
+ * thousands of issues.
+ * <p>
+ * Instead of an HTML element per issue, the report embeds the issues as
+ * JSON: every issue is a group of {@value #FIELDS} numbers in one flat
+ * array, and the numbers of the texts point into a table in which every
+ * distinct text is only stored once. A small script filters the issues by
+ * tool, severity, rule and path, and only creates elements for the issues
+ * that are visible in the scrolled view.
+ * </p>
+ */
+@SuppressWarnings("java:S1192" /* duplicated strings: creating constants for html tags makes the code less readable. */)
+public class VirtualHtmlReport {
+
+    /**
+     * The number of fields of an issue in the payload: project, tool, file,
+     * rule, severity, line, column and description.
+     */
+    private static final int FIELDS = 8;
+
+    private static final String STYLE = """
+          .filters { display: flex; flex-wrap: wrap; gap: 0.5em 1em; margin: 1em 0; }
+          .filters input { flex-grow: 1; }
+          #view { height: 75vh; overflow-y: auto; position: relative; border-top: 1px solid #e0e0e0; }
+          .row {
+            position: absolute; left: 0; right: 0; height: 28px; line-height: 28px;
+            white-space: nowrap; overflow: hidden; text-overflow: ellipsis;
+          }
+          .location { color: #616161; margin-left: 0.5em; }
+        """;
+
+    private static final String SCRIPT = """
+        <script>
+        (function () {
+          const ROW_HEIGHT = 28;
+          const FIELDS = %d;
+          const data = JSON.parse(document.getElementById('issues').textContent);
+          const texts = data.texts;
+          const issues = Int32Array.from(data.issues);
+          const count = issues.length / FIELDS;
+          const view = document.getElementById('view');
+          const rows = document.getElementById('rows');
+          const status = document.getElementById('status');
+          const filters = {
+            tool: document.getElementById('tool'),
+            severity: document.getElementById('severity'),
+            rule: document.getElementById('rule'),
+            path: document.getElementById('path')
+          };
+          let visible = new Int32Array(0);
+
+          function addOptions(select, values, label) {
+            values.forEach(value => {
+              const option = document.createElement('option');
+              option.value = value;
+              option.textContent = label(value);
+              select.appendChild(option);
+            });
+          }
+          function distinct(field) {
+            const values = new Set();
+            for (let i = field; i < issues.length; i += FIELDS) {
+              values.add(issues[i]);
+            }
+            return [...values].sort((a, b) => texts[a].localeCompare(texts[b]));
+          }
+          addOptions(filters.tool, distinct(1), value => texts[value]);
+          addOptions(filters.severity, data.severities.map((severity, i) => i), value => data.severities[value]);
+          addOptions(filters.rule, distinct(3), value => texts[value]);
+
+          function filter() {
+            const tool = Number(filters.tool.value);
+            const severity = Number(filters.severity.value);
+            const rule = Number(filters.rule.value);
+            const path = filters.path.value.toLowerCase();
+            const pathMatches = new Map();
+            const matches = new Int32Array(count);
+            let size = 0;
+            for (let issue = 0; issue < count; issue++) {
+              const offset = issue * FIELDS;
+              if (tool >= 0 && issues[offset + 1] !== tool
+                  || severity >= 0 && issues[offset + 4] !== severity
+                  || rule >= 0 && issues[offset + 3] !== rule) {
+                continue;
+              }
+              if (path) {
+                const file = issues[offset + 2];
+                if (!pathMatches.has(file)) {
+                  pathMatches.set(file, texts[file].toLowerCase().includes(path));
+                }
+                if (!pathMatches.get(file)) {
+                  continue;
+                }
+              }
+              matches[size++] = issue;
+            }
+            visible = matches.subarray(0, size);
+            status.textContent = size + ' of ' + count + ' issues';
+            rows.style.height = size * ROW_HEIGHT + 'px';
+            view.scrollTop = 0;
+            render();
+          }
+
+          function span(className, text) {
+            const element = document.createElement('span');
+            element.className = className;
+            element.textContent = text;
+            return element;
+          }
+          function render() {
+            const first = Math.floor(view.scrollTop / ROW_HEIGHT);
+            const last = Math.min(visible.length, first + Math.ceil(view.clientHeight / ROW_HEIGHT) + 1);
+            const elements = [];
+            for (let r = first; r < last; r++) {
+              const offset = visible[r] * FIELDS;
+              const row = document.createElement('div');
+              row.className = 'row';
+              row.style.top = r * ROW_HEIGHT + 'px';
+              row.appendChild(span('label ' + data.severities[issues[offset + 4]], texts[issues[offset + 3]]));
+              row.appendChild(document.createTextNode(texts[issues[offset + 7]]));
+              const location = texts[issues[offset + 2]] + ':' + issues[offset + 5] + ':' + issues[offset + 6];
+              row.appendChild(span('location', location + ' \\u2013 ' + texts[issues[offset + 1]]
+                + ' in ' + texts[issues[offset]]));
+              row.title = texts[issues[offset + 7]];
+              elements.push(row);
+            }
+            rows.replaceChildren(...elements);
+          }
+
+          Object.values(filters).forEach(element => element.addEventListener('input', filter));
+          view.addEventListener('scroll', () => window.requestAnimationFrame(render));
+          window.addEventListener('resize', render);
+          filter();
+        })();
+        </script>
+        """.formatted(FIELDS);
+
+    private final MavenProject project;
+    private final Path baseDir;
+    private final IssueIndex index;
+
+    public VirtualHtmlReport(final MavenProject project, final Path baseDir, final IssueIndex index) {
+        this.project = project;
+        this.baseDir = baseDir;
+        this.index = index;
+    }
+
+    public void writeTo(final Path file) throws MojoFailureException {
+        try (Writer out = Files.newBufferedWriter(file, UTF_8)) {
+            writeTo(out);
+        } catch (final IOException e) {
+            throw new MojoFailureException("Failed to write HTML report to file " + file + ".", e);
+        }
+    }
+
+    private void writeTo(final Writer out) throws IOException {
+        final PrintWriter html = new PrintWriter(out);
+        html.println("<!DOCTYPE html>");
+        html.println("<html lang=\"en\">");
+        HtmlReport.writeHead(html, STYLE);
+        html.println("<body>");
+        html.print("<h1>Code Analysis for ");
+        html.print(escapeHtml4(getProjectName(project)));
+        final String version = project.getVersion();
+        if (version != null) {
+            html.print(" ");
+            html.print(version);
+        }
+        html.println("</h1>");
+        html.println("<section>");
+        if (index.foundIssues()) {
+            writeSummary(html);
+            writeIssues(html);
+        } else {
+            html.println("<h2>Congratulations!</h2>");
+            html.println("<p>The code analysers did not find any issues.</p>");
+        }
+        html.println("</section>");
+        html.println("</body>");
+        html.println("</html>");
+        html.flush();
+        if (html.checkError()) {
+            throw new IOException("Failed to create HTML report.");
+        }
+    }
+
+    private void writeSummary(final PrintWriter html) {
+        html.println("<h2>Summary</h2>");
+        for (final Map.Entry<String, Long> entry : index.getNumberOfIssuesByTool().entrySet()) {
+            html.print("<p>");
+            html.print(escapeHtml4(entry.getKey()));
+            html.print(" found ");
+            html.print(numberOfIssues(entry.getValue()));
+            html.println(".</p>");
+        }
+    }
+
+    private void writeIssues(final PrintWriter html) {
+        html.println("""
+            <div class="filters">
+            <select id="tool"><option value="-1">All tools</option></select>
+            <select id="severity"><option value="-1">All severities</option></select>
+            <select id="rule"><option value="-1">All rules</option></select>
+            <input id="path" type="search" placeholder="Filter by path"/>
+            <span id="status"></span>
+            </div>
+            <div id="view"><div id="rows"></div></div>""");
+        html.print("<script id=\"issues\" type=\"application/json\">");
+        writePayload(html);
+        html.println("</script>");
+        html.print(SCRIPT);
+    }
+
+    /**
+     * Writes the issues before the text table, so the issues can be
+     * streamed and only the distinct texts are kept in memory.
+     */
+    private void writePayload(final PrintWriter html) {
+        final TextTable texts = new TextTable();
+        html.print("{\"issues\":[");
+        final boolean[] separate = {false};
+        for (final IssueIndex.ProjectInspections projectInspections : index.getProjectsWithIssues()) {
+            final int projectName = texts.indexOf(projectInspections.name());
+            for (final Inspection inspection : projectInspections.inspections()) {
+                final int toolName = texts.indexOf(inspection.toolName());
+                index.forEachFile(inspection, (file, issues) -> {
+                    final int path = texts.indexOf(baseDir.relativize(file).toString().replace('\\', '/'));
+                    for (final Issue issue : issues) {
+                        if (separate[0]) {
+                            html.print(',');
+                        }
+                        separate[0] = true;
+                        html.print(projectName);
+                        html.print(',');
+                        html.print(toolName);
+                        html.print(',');
+                        html.print(path);
+                        html.print(',');
+                        html.print(texts.indexOf(issue.name()));
+                        html.print(',');
+                        html.print(issue.severity().ordinal());
+                        html.print(',');
+                        html.print(issue.line());
+                        html.print(',');
+                        html.print(issue.column());
+                        html.print(',');
+                        html.print(texts.indexOf(issue.description()));
+                    }
+                    html.println();
+                });
+            }
+        }
+        html.print("],\"severities\":[");
+        final Issue.Severity[] severities = Issue.Severity.values();
+        for (int i = 0; i < severities.length; i++) {
+            html.print(i == 0 ? "\"" : ",\"");
+            html.print(severities[i].getName());
+            html.print('"');
+        }
+        html.print("],\"texts\":[");
+        final List<String> table = texts.texts();
+        for (int i = 0; i < table.size(); i++) {
+            html.print(i == 0 ? "\"" : ",\"");
+            // Without "<" the payload can neither contain "</script>" nor "<!--" and "<script", which would
+            // otherwise make the browser treat the rest of the page as part of the payload.
+            html.print(escapeJson(table.get(i)).replace("<", "\\u003c"));
+            html.print('"');
+        }
+        html.print("]}");
+    }
+
+    private static String getProjectName(final MavenProject project) {
+        final String name = project.getName();
+        return name == null ? project.getArtifactId() : name;
+    }
+
+    private static String numberOfIssues(final long sum) {
+        final String noun = sum == 1 ? " issue" : " issues";
+        return sum + noun;
+    }
+
+    /**
+     * Assigns every distinct text a number in the order the texts are added.
+     */
+    private static final class TextTable {
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> texts = new ArrayList<>();
+
+        int indexOf(final String text) {
+            final String value = text == null ? "" : text;
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = texts.size();
+                indexes.put(value, index);
+                texts.add(value);
+            }
+            return index;
+        }
+
+        List<String> texts() {
+            return texts;
+        }
+
+    }
+
+}
@@ -88,6 +88,28 @@ public class AggregateMojoIT {
         assertThat(project).out().warn().contains("The following report formats are invalid and are ignored: xyz");
     }
 
+    @MavenTest
+    @MavenGoal("ch.acanda.maven:code-analysis-maven-plugin:aggregate")
+    @SystemProperty(value = "coan.pmd.reactorAnalysis", content = "true")
+    public void aggregateWithPmdReactorAnalysisFailsWithIssues(final MavenExecutionResult project) {
+        assertThat(project).isFailure().project().hasTarget().withFile("code-analysis/report.html").exists();
+        assertThat(project).out().info().contains("PMD did not find any issues in aggregate.");
+        assertThat(project).out().warn().containsSubsequence(
+            "PMD found 1 issue in aggregate-module-1:",
+            getPathForJavaSource("module1", "Hello.java"),
+            " [ExtendsObject] No need to explicitly extend Object. (Hello.java:1)"
+        );
+        assertThat(project).out().warn().containsSubsequence(
+            "PMD found 1 issue in aggregate-module-2:",
+            getPathForJavaSource("module2", "World.java"),
+            " [ExtendsObject] No need to explicitly extend Object. (World.java:1)"
+        );
+        assertThat(project).out().warn().containsSubsequence(
+            "Checkstyle found 2 issues in aggregate-module-1:",
+            getPathForJavaSource("module1", "Hello.java")
+        );
+    }
+
     private static Condition<MavenProjectResult> aTargetDirectory() {
         return new Condition<>(p -> Files.exists(p.getTargetProjectDirectory().resolve("target")), "a target");
     }
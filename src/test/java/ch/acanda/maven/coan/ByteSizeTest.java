@@ -0,0 +1,34 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ByteSizeTest {
+
+    @Test
+    void bytes() throws MojoFailureException {
+        assertThat(ByteSize.parse("coan.cache.maxSize", "4096")).isEqualTo(4096);
+        assertThat(ByteSize.parse("coan.cache.maxSize", "0")).isZero();
+    }
+
+    @Test
+    void units() throws MojoFailureException {
+        assertThat(ByteSize.parse("coan.cache.maxSize", "512K")).isEqualTo(512L * 1024);
+        assertThat(ByteSize.parse("coan.cache.maxSize", "100m")).isEqualTo(100L * 1024 * 1024);
+        assertThat(ByteSize.parse("coan.cache.maxSize", "2G")).isEqualTo(2L * 1024 * 1024 * 1024);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "-1", "M", "1.5M", "10T", "abc" })
+    void invalidSize(final String value) {
+        assertThatThrownBy(() -> ByteSize.parse("coan.cache.maxSize", value))
+            .isInstanceOf(MojoFailureException.class)
+            .hasMessageStartingWith("Invalid value \"" + value + "\" for coan.cache.maxSize.");
+    }
+
+}
@@ -0,0 +1,89 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangedFilesTest {
+
+    @TempDir
+    private Path repository;
+
+    @BeforeEach
+    void createRepository() throws IOException, InterruptedException {
+        git("init", "--quiet", "--initial-branch=main");
+        createFile("a/src/main/java/Unchanged.java");
+        createFile("a/src/main/java/Changed.java");
+        createFile("b/src/main/java/Other.java");
+        git("add", ".");
+        git("commit", "--quiet", "-m", "Initial commit");
+        git("checkout", "--quiet", "-b", "feature");
+    }
+
+    @Test
+    void containsCommittedUncommittedAndUntrackedChanges() throws IOException, InterruptedException,
+        MojoFailureException {
+        Files.writeString(repository.resolve("a/src/main/java/Changed.java"), "class Changed { }");
+        git("commit", "--quiet", "-am", "Change");
+        createFile("a/src/main/java/Untracked.java");
+        Files.writeString(repository.resolve("b/src/main/java/Other.java"), "class Other { }");
+
+        final ChangedFiles changedFiles = ChangedFiles.since("main", repository, new RecordingLog());
+
+        assertThat(changedFiles.contains(repository.resolve("a/src/main/java/Changed.java"))).isTrue();
+        assertThat(changedFiles.contains(repository.resolve("a/src/main/java/Untracked.java"))).isTrue();
+        assertThat(changedFiles.contains(repository.resolve("b/src/main/java/Other.java"))).isTrue();
+        assertThat(changedFiles.contains(repository.resolve("a/src/main/java/Unchanged.java"))).isFalse();
+    }
+
+    @Test
+    void affectsOnlyProjectsWithChangedSourceFiles() throws IOException, MojoFailureException {
+        createFile("a/src/main/java/Untracked.java");
+
+        final ChangedFiles changedFiles = ChangedFiles.since("main", repository, new RecordingLog());
+
+        assertThat(changedFiles.affects(createProject("a"))).isTrue();
+        assertThat(changedFiles.affects(createProject("b"))).isFalse();
+    }
+
+    @Test
+    void unknownRevision() {
+        assertThatThrownBy(() -> ChangedFiles.since("unknown", repository, new RecordingLog()))
+            .isInstanceOf(MojoFailureException.class)
+            .hasMessageStartingWith("The command \"git merge-base unknown HEAD\" failed");
+    }
+
+    private MavenProject createProject(final String name) {
+        final MavenProject project = new MavenProject();
+        project.getBuild().setSourceDirectory(repository.resolve(name).resolve("src/main/java").toString());
+        project.getBuild().setTestSourceDirectory(repository.resolve(name).resolve("src/test/java").toString());
+        return project;
+    }
+
+    private void createFile(final String name) throws IOException {
+        final Path file = repository.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "class " + file.getFileName().toString().replace(".java", "") + " {}");
+    }
+
+    private void git(final String... arguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>(List.of(
+            "git", "-c", "user.name=Test", "-c", "user.email=test@example.com", "-c", "commit.gpgsign=false"
+        ));
+        command.addAll(List.of(arguments));
+        final Process process = new ProcessBuilder(command).directory(repository.toFile()).inheritIO().start();
+        assertThat(process.waitFor()).isZero();
+    }
+
+}
@@ -0,0 +1,224 @@
+package ch.acanda.maven.coan;
+
+import ch.acanda.maven.coan.cache.IssueSpill;
+import ch.acanda.maven.coan.cache.StoredInspections;
+import ch.acanda.maven.coan.report.StubInspection;
+import ch.acanda.maven.coan.report.StubIssue;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InspectionSchedulerTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void returnsInspectionsInTaskOrder() throws InterruptedException {
+        final InspectionScheduler scheduler = new InspectionScheduler(3, Duration.ofMinutes(1));
+        final List<InspectionTask> tasks = IntStream.range(0, 10)
+            .mapToObj(i -> task("module" + i, 0, () -> {
+                Thread.sleep(10L * (10 - i));
+                return inspection("Tool" + i);
+            }))
+            .toList();
+
+        final List<List<Inspection>> inspections = scheduler.run(tasks, costs());
+
+        assertThat(inspections)
+            .extracting(taskInspections -> taskInspections.get(0).toolName())
+            .containsExactly(IntStream.range(0, 10).mapToObj(i -> "Tool" + i).toArray(String[]::new));
+    }
+
+    @Test
+    void runsAtMostThreadsTasksConcurrently() throws InterruptedException {
+        final InspectionScheduler scheduler = new InspectionScheduler(2, Duration.ofMinutes(1));
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        // Every task waits for a second one, so two tasks always overlap.
+        final CyclicBarrier pair = new CyclicBarrier(2);
+        final List<InspectionTask> tasks = IntStream.range(0, 8)
+            .mapToObj(i -> task("module" + i, 0, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                pair.await(10, TimeUnit.SECONDS);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return inspection("Tool" + i);
+            }))
+            .toList();
+
+        scheduler.run(tasks, costs());
+
+        assertThat(maxRunning).hasValue(2);
+    }
+
+    @Test
+    void startsMostExpensiveTasksFirst() throws InterruptedException {
+        final InspectionScheduler scheduler = new InspectionScheduler(1, Duration.ofMinutes(1));
+        final Queue<String> started = new ConcurrentLinkedQueue<>();
+        final List<InspectionTask> tasks = List.of(
+            task("small", 1, () -> start(started, "small")),
+            task("large", 10, () -> start(started, "large")),
+            task("medium", 5, () -> start(started, "medium"))
+        );
+
+        scheduler.run(tasks, costs());
+
+        assertThat(started).containsExactly("large", "medium", "small");
+    }
+
+    @Test
+    void failsIfTaskFails() {
+        final InspectionScheduler scheduler = new InspectionScheduler(2, Duration.ofMinutes(1));
+        final List<InspectionTask> tasks = List.of(
+            task("pmd", 0, () -> inspection("PMD")),
+            task("checkstyle", 0, () -> {
+                throw new IllegalStateException("Checkstyle failed");
+            })
+        );
+
+        assertThatThrownBy(() -> scheduler.run(tasks, costs()))
+            .isInstanceOf(AnalysisExecutionException.class)
+            .hasRootCauseMessage("Checkstyle failed");
+    }
+
+    @Test
+    void stopsWhenStopConditionMatches() throws InterruptedException {
+        final InspectionScheduler scheduler = new InspectionScheduler(1, Duration.ofMinutes(1));
+        final Queue<String> started = new ConcurrentLinkedQueue<>();
+        final List<InspectionTask> tasks = List.of(
+            task("small", 1, () -> start(started, "small")),
+            task("large", 10, () -> start(started, "large")),
+            task("medium", 5, () -> start(started, "medium"))
+        );
+
+        final List<List<Inspection>> inspections = scheduler.run(tasks, costs(),
+            taskInspections -> taskInspections.get(0).toolName().equals("medium"));
+
+        assertThat(started).containsExactly("large", "medium");
+        assertThat(inspections.get(0)).isNull();
+        assertThat(inspections.get(1)).extracting(Inspection::toolName).containsExactly("large");
+        assertThat(inspections.get(2)).extracting(Inspection::toolName).containsExactly("medium");
+    }
+
+    @Test
+    void dropsInspectionsOfTasksThatFinishAfterStop() throws InterruptedException {
+        final InspectionScheduler scheduler = new InspectionScheduler(2, Duration.ofMinutes(1));
+        final Path spillDir = tempDir.resolve("spill");
+        final Path storeDir = tempDir.resolve("inspections");
+        final StoredInspections storedInspections = new StoredInspections(storeDir, new RecordingLog());
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        try (IssueSpill spill = new IssueSpill(spillDir, 0, new RecordingLog())) {
+            final InspectionTask late = task("late", 10, "fingerprint", () -> {
+                // Like PMD and Checkstyle, the task ignores the interruption.
+                awaitUninterruptibly(release);
+                return inspectionWithIssue("Late");
+            });
+            final InspectionTask wrapped = AggregateMojo.keeping(
+                AggregateMojo.storing(late, storedInspections, scheduler), spill::keep, scheduler);
+            final List<InspectionTask> tasks = List.of(
+                new InspectionTask(late.id(), late.projects(), () -> {
+                    try {
+                        return wrapped.inspector().call();
+                    } finally {
+                        finished.countDown();
+                    }
+                }, late.fingerprint()),
+                task("early", 1, () -> inspection("Early"))
+            );
+
+            final List<List<Inspection>> inspections = scheduler.run(tasks, costs(),
+                taskInspections -> taskInspections.get(0).toolName().equals("Early"));
+            release.countDown();
+
+            assertThat(finished.await(1, TimeUnit.MINUTES)).isTrue();
+            assertThat(inspections.get(0)).isNull();
+            assertThat(spillDir).doesNotExist();
+            assertThat(storeDir).doesNotExist();
+            assertThat(storedInspections.get(late.id(), "fingerprint", late.projects())).isEmpty();
+        }
+    }
+
+    private InspectionCosts costs() {
+        try {
+            final SourceFiles sourceFiles = new SourceFiles(List.of(), List.of());
+            return InspectionCosts.load(tempDir.resolve("target"), new RecordingLog(), sourceFiles::find);
+        } catch (final MojoFailureException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Creates a task for a project with the provided number of source files.
+     */
+    private InspectionTask task(final String artifactId, final int numberOfFiles,
+        final Callable<Inspection> inspector) {
+        return task(artifactId, numberOfFiles, null, inspector);
+    }
+
+    private InspectionTask task(final String artifactId, final int numberOfFiles, final String fingerprint,
+        final Callable<Inspection> inspector) {
+        try {
+            final Path sources = Files.createDirectories(tempDir.resolve(artifactId).resolve("src"));
+            for (int i = 0; i < numberOfFiles; i++) {
+                Files.writeString(sources.resolve("File" + i + ".java"), "class File" + i + " {}");
+            }
+            final MavenProject project = new MavenProject();
+            project.setArtifactId(artifactId);
+            project.getBuild().setSourceDirectory(sources.toString());
+            return InspectionTask.of(project, "Tool", fingerprint, inspector);
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Inspection start(final Queue<String> started, final String name) {
+        started.add(name);
+        return inspection(name);
+    }
+
+    private static Inspection inspection(final String tool) {
+        return new StubInspection(tool, List.of(), new MavenProject());
+    }
+
+    private Inspection inspectionWithIssue(final String tool) {
+        final Issue issue =
+            new StubIssue(tempDir.resolve("Late.java"), 1, 1, "Rule", "Description", Issue.Severity.HIGH);
+        return new StubInspection(tool, List.of(issue), new MavenProject());
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
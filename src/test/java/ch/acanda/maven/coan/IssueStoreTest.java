@@ -0,0 +1,58 @@
+package ch.acanda.maven.coan;
+
+import ch.acanda.maven.coan.cache.CachedIssue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueStoreTest {
+
+    private static final Path FIRST = Paths.get("src/main/java/First.java");
+    private static final Path SECOND = Paths.get("src/main/java/Second.java");
+
+    @Test
+    void returnsIssuesInInsertionOrder() {
+        final List<Issue> expected = List.of(
+            new CachedIssue(FIRST, 1, 2, "RuleA", "Description A", Issue.Severity.HIGH),
+            new CachedIssue(SECOND, 3, 4, "RuleB", "Description B", Issue.Severity.LOW),
+            new CachedIssue(FIRST, 5, 6, "RuleA", "Description A", Issue.Severity.HIGH)
+        );
+
+        final IssueStore store = IssueStore.copyOf(expected);
+
+        assertThat(store).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        final List<Issue> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expected.add(new CachedIssue(FIRST, i, i + 1, "Rule" + i % 3, "Description", Issue.Severity.MEDIUM));
+        }
+
+        final IssueStore store = new IssueStore.Builder().addAll(expected).build();
+
+        assertThat(store).hasSize(100).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void copyOfStoreReturnsSameStore() {
+        final IssueStore store = new IssueStore.Builder()
+            .add(FIRST, 1, 1, "Rule", "Description", Issue.Severity.IGNORE)
+            .build();
+
+        assertThat(IssueStore.copyOf(store)).isSameAs(store);
+    }
+
+    @Test
+    void emptyStore() {
+        assertThat(IssueStore.empty()).isEmpty();
+        assertThat(new IssueStore.Builder().isEmpty()).isTrue();
+    }
+
+}
@@ -0,0 +1,115 @@
+package ch.acanda.maven.coan;
+
+import ch.acanda.maven.coan.cache.StoredInspections;
+import ch.acanda.maven.coan.checkstyle.CheckstyleInspector;
+import ch.acanda.maven.coan.pmd.PmdInspector;
+import ch.acanda.maven.coan.report.StubInspection;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModuleFingerprintsTest {
+
+    private static final String CHECKSTYLE_CONFIG = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <!DOCTYPE module PUBLIC "-//Puppy Crawl//DTD Check Configuration 1.3//EN"
+          "https://checkstyle.org/dtds/configuration_1_3.dtd">
+        <module name="Checker">
+          <module name="SuppressionFilter">
+            <property name="file" value="suppressions.xml"/>
+          </module>
+          <module name="LineLength"/>
+        </module>
+        """;
+
+    private static final String SUPPRESSIONS = """
+        <?xml version="1.0"?>
+        <!DOCTYPE suppressions PUBLIC "-//Checkstyle//DTD SuppressionFilter Configuration 1.2//EN"
+          "https://checkstyle.org/dtds/suppressions_1_2.dtd">
+        <suppressions>
+          <suppress checks="LineLength" files="%s"/>
+        </suppressions>
+        """;
+
+    private static final String PMD_CONFIG = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <ruleset name="test" xmlns="http://pmd.sourceforge.net/ruleset/2.0.0">
+          <description/>
+          <rule ref="shared.xml"/>
+          <rule ref="category/java/codestyle.xml/ExtendsObject"/>
+        </ruleset>
+        """;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void inspectsAgainAfterReferencedSuppressionsChange() throws IOException, MojoFailureException {
+        final MavenProject project = createProject();
+        final Path configPath = Files.writeString(tempDir.resolve("checkstyle.xml"), CHECKSTYLE_CONFIG);
+        final Path suppressions = Files.writeString(tempDir.resolve("suppressions.xml"), SUPPRESSIONS.formatted("A"));
+        final StoredInspections stored = new StoredInspections(tempDir.resolve("inspections"), new RecordingLog());
+        final ModuleFingerprints fingerprints = new ModuleFingerprints();
+        final String fingerprint = checkstyleFingerprint(fingerprints, configPath, project);
+        final StubInspection inspection = new StubInspection("Checkstyle", List.of(), project);
+        stored.put("task", fingerprint, List.of(project), List.of(inspection));
+
+        Files.writeString(suppressions, SUPPRESSIONS.formatted("B"));
+        final String newFingerprint = checkstyleFingerprint(fingerprints, configPath, project);
+
+        assertThat(CheckstyleInspector.getConfigFiles(configPath, tempDir)).contains(suppressions);
+        assertThat(newFingerprint).isNotEqualTo(fingerprint);
+        assertThat(stored.get("task", newFingerprint, List.of(project))).isEmpty();
+    }
+
+    @Test
+    void changesWithReferencedRuleSet() throws IOException, MojoFailureException {
+        final MavenProject project = createProject();
+        final Path configPath = Files.writeString(tempDir.resolve("pmd.xml"), PMD_CONFIG);
+        final Path shared = Files.writeString(tempDir.resolve("shared.xml"), "<ruleset/>");
+        final ModuleFingerprints fingerprints = new ModuleFingerprints();
+        final String fingerprint = pmdFingerprint(fingerprints, configPath, project);
+
+        Files.writeString(shared, "<ruleset><rule ref=\"category/java/bestpractices.xml\"/></ruleset>");
+
+        assertThat(PmdInspector.getConfigFiles(configPath, tempDir)).containsExactly(configPath, shared);
+        assertThat(pmdFingerprint(fingerprints, configPath, project)).isNotEqualTo(fingerprint);
+    }
+
+    private String checkstyleFingerprint(final ModuleFingerprints fingerprints, final Path configPath,
+        final MavenProject project) throws MojoFailureException {
+        return fingerprint(fingerprints, CheckstyleInspector.getConfigFiles(configPath, tempDir), project);
+    }
+
+    private String pmdFingerprint(final ModuleFingerprints fingerprints, final Path configPath,
+        final MavenProject project) throws MojoFailureException {
+        return fingerprint(fingerprints, PmdInspector.getConfigFiles(configPath, tempDir), project);
+    }
+
+    private static String fingerprint(final ModuleFingerprints fingerprints, final Collection<Path> configFiles,
+        final MavenProject project) throws MojoFailureException {
+        return fingerprints.of("Tool", "1.0", configFiles, new SourceFiles(List.of(), List.of()), List.of(project),
+            false);
+    }
+
+    private MavenProject createProject() throws IOException {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId("project");
+        project.setFile(tempDir.resolve("pom.xml").toFile());
+        project.getBuild().setSourceDirectory(Files.createDirectories(tempDir.resolve("src")).toString());
+        project.getBuild().setTestSourceDirectory(tempDir.resolve("test").toString());
+        project.getBuild().setOutputDirectory(tempDir.resolve("target/classes").toString());
+        project.getBuild().setTestOutputDirectory(tempDir.resolve("target/test-classes").toString());
+        return project;
+    }
+
+}
@@ -0,0 +1,132 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceChangesTest {
+
+    private static final Path ROOT = Paths.get("/workspace").toAbsolutePath();
+
+    private final MavenProject core = createProject("core");
+    private final MavenProject web = createProject("web");
+    private final SourceChanges sourceChanges = new SourceChanges(Map.of(
+        core, List.of(ROOT.resolve("core/src/main/java"), ROOT.resolve("core/src/test/java")),
+        web, List.of(ROOT.resolve("web/src/main/java"))
+    ), 50);
+
+    @Test
+    void analysesOnlyProjectOfChangedFile() throws InterruptedException {
+        final Path file = ROOT.resolve("web/src/main/java/Page.java");
+
+        final SourceChanges.Changes changes = sourceChanges.await(new RecordedSource(batch(file)));
+
+        assertThat(changes.affects(web)).isTrue();
+        assertThat(changes.affects(core)).isFalse();
+        assertThat(changes.files(web)).accepts(file).rejects(ROOT.resolve("web/src/main/java/Other.java"));
+        assertThat(changes.files(core)).rejects(file);
+    }
+
+    @Test
+    void collectsChangesUntilSourceIsQuiet() throws InterruptedException {
+        final Path first = ROOT.resolve("core/src/main/java/Service.java");
+        final Path second = ROOT.resolve("core/src/test/java/ServiceTest.java");
+        final Path third = ROOT.resolve("web/src/main/java/Page.java");
+        final RecordedSource source = new RecordedSource(batch(first), batch(second), batch(third));
+
+        final SourceChanges.Changes changes = sourceChanges.await(source);
+
+        assertThat(changes.filesByProject()).containsOnly(
+            Map.entry(core, Set.of(first, second)),
+            Map.entry(web, Set.of(third))
+        );
+        assertThat(source.timeouts).containsExactly(50L, 50L, 50L);
+    }
+
+    @Test
+    void ignoresFilesOutsideSourceDirectories() throws InterruptedException {
+        final Path file = ROOT.resolve("web/pom.xml");
+
+        final SourceChanges.Changes changes = sourceChanges.await(new RecordedSource(batch(file)));
+
+        assertThat(changes.affects(core)).isFalse();
+        assertThat(changes.affects(web)).isFalse();
+    }
+
+    @Test
+    void analysesAllFilesOfAllProjectsAfterOverflow() throws InterruptedException {
+        final Path file = ROOT.resolve("web/src/main/java/Page.java");
+        final RecordedSource source =
+            new RecordedSource(batch(file), new SourceChanges.Batch(List.of(), true));
+
+        final SourceChanges.Changes changes = sourceChanges.await(source);
+
+        assertThat(changes.overflow()).isTrue();
+        assertThat(changes.affects(core)).isTrue();
+        assertThat(changes.files(core)).accepts(ROOT.resolve("core/src/main/java/Service.java"));
+    }
+
+    @Test
+    void assignsFileToInnermostSourceDirectory() throws InterruptedException {
+        final MavenProject nested = createProject("nested");
+        final SourceChanges nestedChanges = new SourceChanges(Map.of(
+            core, List.of(ROOT.resolve("core")),
+            nested, List.of(ROOT.resolve("core/nested/src/main/java"))
+        ), 50);
+        final Path file = ROOT.resolve("core/nested/src/main/java/Nested.java");
+
+        final SourceChanges.Changes changes = nestedChanges.await(new RecordedSource(batch(file)));
+
+        assertThat(changes.affects(nested)).isTrue();
+        assertThat(changes.affects(core)).isFalse();
+    }
+
+    private static SourceChanges.Batch batch(final Path... files) {
+        return new SourceChanges.Batch(List.of(files), false);
+    }
+
+    private static MavenProject createProject(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId(artifactId);
+        return project;
+    }
+
+    /**
+     * Returns the batches one after the other and then reports that the
+     * source is quiet.
+     */
+    private static final class RecordedSource implements SourceChanges.Source {
+
+        private final Queue<SourceChanges.Batch> batches;
+        private final List<Long> timeouts = new ArrayList<>();
+
+        RecordedSource(final SourceChanges.Batch... batches) {
+            this.batches = new ArrayDeque<>(Arrays.asList(batches));
+        }
+
+        @Override
+        public SourceChanges.Batch take() {
+            return batches.remove();
+        }
+
+        @Override
+        public SourceChanges.Batch poll(final long timeout, final TimeUnit unit) {
+            timeouts.add(unit.toMillis(timeout));
+            return batches.poll();
+        }
+
+    }
+
+}
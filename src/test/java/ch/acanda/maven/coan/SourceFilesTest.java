@@ -0,0 +1,74 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SourceFilesTest {
+
+    @TempDir
+    private Path baseDir;
+
+    @Test
+    void findsSortedSourceAndTestSourceFiles() throws IOException, MojoFailureException {
+        final Path main = createFile("src/main/java/com/example/Main.java");
+        final Path resource = createFile("src/main/java/com/example/package-info.txt");
+        final Path deep = createFile("src/main/java/com/example/Nested/Deeply/Deep.java");
+        final Path test = createFile("src/test/java/com/example/MainTest.java");
+
+        final List<Path> files = new SourceFiles(List.of(), List.of()).find(createProject());
+
+        assertThat(files).containsExactly(main, deep, resource, test);
+    }
+
+    @Test
+    void appliesIncludeAndExcludePatterns() throws IOException, MojoFailureException {
+        final Path main = createFile("src/main/java/com/example/Main.java");
+        createFile("src/main/java/com/example/generated/Generated.java");
+        createFile("src/main/java/com/example/package-info.txt");
+        final Path test = createFile("src/test/java/com/example/MainTest.java");
+
+        final SourceFiles sourceFiles = new SourceFiles(List.of("**.java"), List.of("**/generated/**"));
+        final List<Path> files = sourceFiles.find(createProject());
+
+        assertThat(files).containsExactly(main, test);
+    }
+
+    @Test
+    void ignoresMissingSourceDirectories() throws MojoFailureException {
+        final List<Path> files = new SourceFiles(null, null).find(createProject());
+
+        assertThat(files).isEmpty();
+    }
+
+    @Test
+    void invalidPattern() {
+        assertThatThrownBy(() -> new SourceFiles(List.of("[a-"), List.of()))
+            .isInstanceOf(MojoFailureException.class)
+            .hasMessage("Invalid glob pattern \"[a-\" for coan.includes.");
+    }
+
+    private MavenProject createProject() {
+        final MavenProject project = new MavenProject();
+        project.getBuild().setSourceDirectory(baseDir.resolve("src/main/java").toString());
+        project.getBuild().setTestSourceDirectory(baseDir.resolve("src/test/java").toString());
+        return project;
+    }
+
+    private Path createFile(final String name) throws IOException {
+        final Path file = baseDir.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, "");
+        return file.toAbsolutePath().normalize();
+    }
+
+}
@@ -0,0 +1,53 @@
+package ch.acanda.maven.coan;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ThreadCountTest {
+
+    @Test
+    void absoluteNumberOfThreads() throws MojoFailureException {
+        assertThat(ThreadCount.parse("coan.threads", "3")).isEqualTo(3);
+    }
+
+    @Test
+    void multipleOfAvailableCores() throws MojoFailureException {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        assertThat(ThreadCount.parse("coan.threads", "1C")).isEqualTo(cores);
+        assertThat(ThreadCount.parse("coan.threads", "2c")).isEqualTo(2 * cores);
+        assertThat(ThreadCount.parse("coan.threads", "0.5C")).isEqualTo(Math.max(1, cores / 2));
+    }
+
+    @Test
+    void atLeastOneThread() throws MojoFailureException {
+        assertThat(ThreadCount.parse("coan.threads", "0.0001C")).isEqualTo(1);
+    }
+
+    @Test
+    void atMostMaxThreadsForMultipleOfCores() throws MojoFailureException {
+        assertThat(ThreadCount.parse("coan.threads", "1000000C")).isEqualTo(ThreadCount.MAX_THREADS);
+    }
+
+    @Test
+    void autoDividesCoresBetweenConcurrentAnalyses() throws MojoFailureException {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        assertThat(ThreadCount.parse("coan.pmd.threads", "auto", 1)).isEqualTo(cores);
+        assertThat(ThreadCount.parse("coan.pmd.threads", "AUTO", 2)).isEqualTo(Math.max(1, cores / 2));
+        assertThat(ThreadCount.parse("coan.pmd.threads", "auto", cores * 10)).isEqualTo(1);
+        assertThat(ThreadCount.parse("coan.pmd.threads", "3", 2)).isEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "0", "-1", "0C", "C", "abc", "1.5", "InfinityC", "NaNC", "1e400C" })
+    void invalidThreadCount(final String value) {
+        assertThatThrownBy(() -> ThreadCount.parse("coan.threads", value))
+            .isInstanceOf(MojoFailureException.class)
+            .hasMessageStartingWith("Invalid value \"" + value + "\" for coan.threads.");
+    }
+
+}
@@ -0,0 +1,112 @@
+package ch.acanda.maven.coan.baseline;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.cache.CachedIssue;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BaselineTest {
+
+    private static final MavenProject PROJECT = new MavenProject();
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void removesIssuesInBaseline() throws IOException, MojoFailureException {
+        final Path file = Files.writeString(tempDir.resolve("Hello.java"), "class Hello {\n    int a;\n}\n");
+        final Issue issue = issue(file, 2, "Rule");
+        final Issue otherRule = issue(file, 2, "OtherRule");
+        final Path baselineFile = tempDir.resolve("config").resolve("baseline.bin");
+
+        assertThat(Baseline.write(baselineFile, List.of(inspection("PMD", issue)))).isEqualTo(1);
+        final List<Inspection> inspections =
+            List.of(inspection("PMD", issue, otherRule), inspection("Checkstyle", issue));
+        final List<Inspection> filtered = Baseline.load(baselineFile).filter(inspections);
+
+        assertThat(filtered).extracting(Inspection::issues).containsExactly(List.of(otherRule), List.of(issue));
+    }
+
+    @Test
+    void matchesIssueOnShiftedLine() throws IOException, MojoFailureException {
+        final Path file = Files.writeString(tempDir.resolve("Hello.java"), "class Hello {\n    int a;\n}\n");
+        final Path baselineFile = tempDir.resolve("baseline.bin");
+        Baseline.write(baselineFile, List.of(inspection("PMD", issue(file, 2, "Rule"))));
+        Files.writeString(file, "class Hello {\n\n    int a;\n}\n");
+
+        final List<Inspection> filtered =
+            Baseline.load(baselineFile).filter(List.of(inspection("PMD", issue(file, 3, "Rule"))));
+
+        assertThat(filtered.get(0).issues()).isEmpty();
+    }
+
+    @Test
+    void keepsIssueOnChangedLine() throws IOException, MojoFailureException {
+        final Path file = Files.writeString(tempDir.resolve("Hello.java"), "class Hello {\n    int a;\n}\n");
+        final Path baselineFile = tempDir.resolve("baseline.bin");
+        Baseline.write(baselineFile, List.of(inspection("PMD", issue(file, 2, "Rule"))));
+        Files.writeString(file, "class Hello {\n    int b;\n}\n");
+        final Issue issue = issue(file, 2, "Rule");
+
+        final List<Inspection> filtered = Baseline.load(baselineFile).filter(List.of(inspection("PMD", issue)));
+
+        assertThat(filtered.get(0).issues()).containsExactly(issue);
+    }
+
+    @Test
+    void removesDuplicateIssueOnlyOnce() throws IOException, MojoFailureException {
+        final Path file =
+            Files.writeString(tempDir.resolve("Hello.java"), "class Hello {\n    int a;\n    int a;\n}\n");
+        final Path baselineFile = tempDir.resolve("baseline.bin");
+        Baseline.write(baselineFile, List.of(inspection("PMD", issue(file, 2, "Rule"))));
+        final Issue duplicate = issue(file, 3, "Rule");
+
+        final List<Inspection> filtered =
+            Baseline.load(baselineFile).filter(List.of(inspection("PMD", issue(file, 2, "Rule"), duplicate)));
+
+        assertThat(filtered.get(0).issues()).containsExactly(duplicate);
+    }
+
+    @Test
+    void replacesInspectionsInPlaceAndCountsIgnoredIssues() throws IOException, MojoFailureException {
+        final Path file = Files.writeString(tempDir.resolve("Hello.java"), "class Hello {\n    int a;\n}\n");
+        final Issue issue = issue(file, 2, "Rule");
+        final Issue otherRule = issue(file, 2, "OtherRule");
+        final Path baselineFile = tempDir.resolve("baseline.bin");
+        Baseline.write(baselineFile, List.of(inspection("PMD", issue)));
+        final Inspection pmd = inspection("PMD", issue, otherRule);
+        final Inspection checkstyle = inspection("Checkstyle", otherRule);
+        final List<Inspection> inspections = new ArrayList<>(List.of(pmd, checkstyle));
+        final List<Inspection> replaced = new ArrayList<>();
+
+        final int ignored = Baseline.load(baselineFile).replaceAll(inspections, (inspection, filtered) -> {
+            replaced.add(inspection);
+            return filtered;
+        });
+
+        assertThat(ignored).isEqualTo(1);
+        assertThat(replaced).containsExactly(pmd, checkstyle);
+        assertThat(inspections).extracting(Inspection::issues)
+            .containsExactly(List.of(otherRule), List.of(otherRule));
+    }
+
+    private static Issue issue(final Path file, final int line, final String rule) {
+        return new CachedIssue(file, line, 5, rule, "Description", Issue.Severity.MEDIUM);
+    }
+
+    private static Inspection inspection(final String toolName, final Issue... issues) {
+        return new FilteredInspection(toolName, PROJECT, List.of(issues));
+    }
+
+}
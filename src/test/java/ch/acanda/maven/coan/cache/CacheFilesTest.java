@@ -0,0 +1,126 @@
+package ch.acanda.maven.coan.cache;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheFilesTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void givesEveryProjectItsOwnCacheFile() {
+        final String targetPath = tempDir.toString();
+
+        final Path core = CacheFiles.forProject(targetPath, "pmd", createProject("com.example", "core"));
+        final Path web = CacheFiles.forProject(targetPath, "pmd", createProject("com.example", "web"));
+        final Path otherCore = CacheFiles.forProject(targetPath, "pmd", createProject("org.example", "core"));
+
+        assertThat(List.of(core, web, otherCore)).doesNotHaveDuplicates().allMatch(path -> path.startsWith(tempDir));
+        assertThat(CacheFiles.forProject(targetPath, "pmd", createProject("com.example", "core"))).isEqualTo(core);
+    }
+
+    @Test
+    void givesReactorAnalysisItsOwnCacheFile() {
+        final String targetPath = tempDir.toString();
+        final Path project = CacheFiles.forProject(targetPath, "pmd", createProject("com.example", "core"));
+
+        final Path reactor = CacheFiles.forReactor(targetPath, "pmd", "/workspace/config/pmd.xml");
+        final Path otherReactor = CacheFiles.forReactor(targetPath, "pmd", "/workspace/config/other-pmd.xml");
+
+        assertThat(List.of(project, reactor, otherReactor)).doesNotHaveDuplicates();
+        assertThat(reactor).startsWith(tempDir);
+        assertThat(CacheFiles.forReactor(targetPath, "pmd", "/workspace/config/pmd.xml")).isEqualTo(reactor);
+    }
+
+    @Test
+    void writesFileAndCreatesDirectories() throws IOException {
+        final Path file = tempDir.resolve("a/b/entry");
+
+        CacheFiles.writeAtomically(file, out -> out.writeUTF("content"));
+
+        assertThat(file).hasBinaryContent(bytes("content"));
+        assertThat(listFiles(file.getParent())).containsExactly(file);
+    }
+
+    @Test
+    void doesNotExposePartiallyWrittenFile() throws IOException {
+        final Path file = tempDir.resolve("entry");
+
+        CacheFiles.writeAtomically(file, out -> {
+            out.writeUTF("partial");
+            out.flush();
+            assertThat(file).doesNotExist();
+            out.writeUTF("content");
+        });
+
+        assertThat(file).hasBinaryContent(bytes("partial", "content"));
+    }
+
+    @Test
+    void keepsPreviousFileWhenWriteFails() throws IOException {
+        final Path file = tempDir.resolve("entry");
+        CacheFiles.writeAtomically(file, out -> out.writeUTF("previous"));
+
+        assertThatThrownBy(() -> CacheFiles.writeAtomically(file, out -> {
+            out.writeUTF("partial");
+            out.flush();
+            throw new IOException("Interrupted");
+        })).hasMessage("Interrupted");
+
+        assertThat(file).hasBinaryContent(bytes("previous"));
+        assertThat(listFiles(tempDir)).containsExactly(file);
+    }
+
+    @Test
+    void replacesFileOfCollidingWriteWithCompleteContent() throws IOException {
+        final Path file = tempDir.resolve("entry");
+
+        CacheFiles.writeAtomically(file, out -> {
+            out.writeUTF("first");
+            // Another inspection or process writes the same file in the meantime.
+            CacheFiles.writeAtomically(file, other -> other.writeUTF("second"));
+            assertThat(file).hasBinaryContent(bytes("second"));
+            out.writeUTF("first");
+        });
+
+        assertThat(file).hasBinaryContent(bytes("first", "first"));
+        assertThat(listFiles(tempDir)).containsExactly(file);
+    }
+
+    private static byte[] bytes(final String... values) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (final String value : values) {
+                out.writeUTF(value);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static MavenProject createProject(final String groupId, final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setGroupId(groupId);
+        project.setArtifactId(artifactId);
+        return project;
+    }
+
+    private static List<Path> listFiles(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.toList();
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import ch.acanda.maven.coan.RecordingLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueSpillTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void keepsInspectionsBelowThresholdInMemory() {
+        final Path spillDir = tempDir.resolve("spill");
+        try (IssueSpill spill = new IssueSpill(spillDir, 3, new RecordingLog())) {
+            final Inspection inspection = inspection(issue("A.java", 1), issue("B.java", 2), issue("C.java", 3));
+
+            assertThat(spill.keep(inspection)).isSameAs(inspection);
+            assertThat(spillDir).doesNotExist();
+        }
+    }
+
+    @Test
+    void returnsSpilledIssuesOrderedByFile() {
+        try (IssueSpill spill = new IssueSpill(tempDir.resolve("spill"), 1, 2, new RecordingLog())) {
+            final Inspection inspection = inspection(
+                issue("C.java", 1),
+                issue("A.java", 2),
+                issue("B.java", 3),
+                issue("A.java", 4),
+                issue("C.java", 5)
+            );
+
+            final Inspection spilled = spill.keep(inspection);
+
+            assertThat(spilled.toolName()).isEqualTo("PMD");
+            assertThat(spilled.getNumberOfIssues()).isEqualTo(5);
+            assertThat(new ArrayList<>(spilled.issues())).containsExactly(
+                issue("A.java", 2),
+                issue("A.java", 4),
+                issue("B.java", 3),
+                issue("C.java", 1),
+                issue("C.java", 5)
+            );
+            assertThat(spilled.issues().get(3)).isEqualTo(issue("C.java", 1));
+        }
+    }
+
+    @Test
+    void releasesReplacedInspection() {
+        final Path spillDir = tempDir.resolve("spill");
+        try (IssueSpill spill = new IssueSpill(spillDir, 3, new RecordingLog())) {
+            final Inspection inspection = spill.keep(inspection(issue("A.java", 1), issue("B.java", 2)));
+            final Inspection replacement = inspection(issue("A.java", 1), issue("B.java", 2), issue("C.java", 3));
+
+            assertThat(spill.replace(inspection, replacement)).isSameAs(replacement);
+            assertThat(spillDir).doesNotExist();
+        }
+    }
+
+    @Test
+    void releasesNothingForSpilledInspection() {
+        try (IssueSpill spill = new IssueSpill(tempDir.resolve("spill"), 2, new RecordingLog())) {
+            final Inspection large = inspection(issue("A.java", 1), issue("B.java", 2), issue("C.java", 3));
+            final Inspection spilled = spill.keep(large);
+            final Inspection replacement = inspection(issue("A.java", 1), issue("B.java", 2));
+            final Inspection small = inspection(issue("C.java", 3));
+
+            assertThat(spilled).isNotSameAs(large);
+            assertThat(spill.replace(spilled, replacement)).isSameAs(replacement);
+            assertThat(spill.keep(small)).isNotSameAs(small);
+        }
+    }
+
+    @Test
+    void deletesSpilledIssuesOnClose() throws IOException {
+        final Path spillDir = tempDir.resolve("spill");
+        try (IssueSpill spill = new IssueSpill(spillDir, 0, new RecordingLog())) {
+            spill.keep(inspection(issue("A.java", 1)));
+            try (Stream<Path> files = Files.list(spillDir)) {
+                assertThat(files).hasSize(1);
+            }
+        }
+
+        assertThat(spillDir).doesNotExist();
+    }
+
+    private static Inspection inspection(final Issue... issues) {
+        final IssueStore store = new IssueStore.Builder().addAll(List.of(issues)).build();
+        return new CachedInspection("PMD", new MavenProject(), store);
+    }
+
+    private Issue issue(final String file, final int line) {
+        return new CachedIssue(tempDir.resolve(file), line, 0, "Rule", "Description", Issue.Severity.HIGH);
+    }
+
+}
@@ -0,0 +1,228 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.RecordingLog;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCacheTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void replaysIssuesOfUnchangedFile() throws IOException, MojoFailureException {
+        final Path file = createFile("Hello.java", "class Hello {}");
+        final CachedIssue issue = new CachedIssue(file, 3, 7, "Rule", "Description", Issue.Severity.HIGH);
+        final ResultCache cache = createCache(tempDir.resolve("cache"), 1 << 20);
+        final List<List<Path>> analysedFiles = new ArrayList<>();
+        cache.analyse("Tool", "fingerprint", List.of(file), record(analysedFiles, List.of(issue)));
+
+        final List<Issue> issues =
+            cache.analyse("Tool", "fingerprint", List.of(file), record(analysedFiles, List.of()));
+
+        assertThat(issues).containsExactly(issue);
+        assertThat(analysedFiles).containsExactly(List.of(file));
+    }
+
+    @Test
+    void analysesChangedFileAgain() throws IOException, MojoFailureException {
+        final Path unchanged = createFile("Unchanged.java", "class Unchanged {}");
+        final Path changed = createFile("Changed.java", "class Changed {}");
+        final ResultCache cache = createCache(tempDir.resolve("cache"), 1 << 20);
+        final List<List<Path>> analysedFiles = new ArrayList<>();
+        cache.analyse("Tool", "fingerprint", List.of(unchanged, changed), record(analysedFiles, List.of()));
+        Files.writeString(changed, "class Changed { }");
+
+        cache.analyse("Tool", "fingerprint", List.of(unchanged, changed), record(analysedFiles, List.of()));
+
+        assertThat(analysedFiles).containsExactly(List.of(unchanged, changed), List.of(changed));
+    }
+
+    @Test
+    void analysesAllFilesAgainWithDifferentFingerprint() throws IOException, MojoFailureException {
+        final Path file = createFile("Hello.java", "class Hello {}");
+        final ResultCache cache = createCache(tempDir.resolve("cache"), 1 << 20);
+        final List<List<Path>> analysedFiles = new ArrayList<>();
+        cache.analyse("Tool", "fingerprint", List.of(file), record(analysedFiles, List.of()));
+
+        cache.analyse("Tool", "other fingerprint", List.of(file), record(analysedFiles, List.of()));
+
+        assertThat(analysedFiles).containsExactly(List.of(file), List.of(file));
+    }
+
+    @Test
+    void analysesFilesWithSameContentAtDifferentPathsSeparately() throws IOException, MojoFailureException {
+        final Path file = createFile("Hello.java", "class Hello {}");
+        final Path copy = Files.writeString(Files.createDirectories(tempDir.resolve("copy")).resolve("Hello.java"),
+            "class Hello {}");
+        final CachedIssue issue = new CachedIssue(file, 1, 1, "Rule", "Description", Issue.Severity.HIGH);
+        final ResultCache cache = createCache(tempDir.resolve("cache"), 1 << 20);
+        final List<List<Path>> analysedFiles = new ArrayList<>();
+        cache.analyse("Tool", "fingerprint", List.of(file), record(analysedFiles, List.of(issue)));
+
+        final List<Issue> issues =
+            cache.analyse("Tool", "fingerprint", List.of(copy), record(analysedFiles, List.of()));
+
+        assertThat(issues).isEmpty();
+        assertThat(analysedFiles).containsExactly(List.of(file), List.of(copy));
+    }
+
+    @Test
+    void sharesEntriesBetweenCheckouts() throws IOException, MojoFailureException {
+        final Path cacheDir = tempDir.resolve("cache");
+        final Path checkout = Files.createDirectories(tempDir.resolve("checkout"));
+        final Path otherCheckout = Files.createDirectories(tempDir.resolve("other-checkout"));
+        final Path file = Files.writeString(checkout.resolve("Hello.java"), "class Hello {}");
+        final Path otherFile = Files.writeString(otherCheckout.resolve("Hello.java"), "class Hello {}");
+        final List<List<Path>> analysedFiles = new ArrayList<>();
+        createCache(cacheDir, checkout, 1 << 20)
+            .analyse("Tool", "fingerprint", List.of(file), record(analysedFiles, List.of()));
+
+        createCache(cacheDir, otherCheckout, 1 << 20)
+            .analyse("Tool", "fingerprint", List.of(otherFile), record(analysedFiles, List.of()));
+
+        assertThat(analysedFiles).containsExactly(List.of(file));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() throws IOException, MojoFailureException {
+        final Path cacheDir = tempDir.resolve("cache");
+        final ResultCache cache = createCache(cacheDir, 1 << 20);
+        final List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            files.add(createFile("Hello" + i + ".java", "class Hello" + i + " {}"));
+        }
+        cache.analyse("Tool", "fingerprint", files, record(new ArrayList<>(), List.of()));
+        final List<Path> entries = listEntries(cacheDir);
+        final long entrySize = Files.size(entries.get(0));
+        for (int i = 0; i < entries.size(); i++) {
+            Files.setLastModifiedTime(entries.get(i), FileTime.from(Instant.ofEpochSecond(1_000_000L + i)));
+        }
+
+        createCache(cacheDir, entrySize * 5).evict();
+
+        assertThat(listEntries(cacheDir)).hasSizeLessThan(5).isSubsetOf(entries.subList(5, entries.size()));
+    }
+
+    @Test
+    void skipsEvictionShortlyAfterPreviousEviction() throws IOException, MojoFailureException {
+        final Path cacheDir = tempDir.resolve("cache");
+        final ResultCache cache = createCache(cacheDir, 1 << 20);
+        final Path file = createFile("Hello.java", "class Hello {}");
+        cache.analyse("Tool", "fingerprint", List.of(file), record(new ArrayList<>(), List.of()));
+        cache.evict();
+
+        createCache(cacheDir, 1).evict();
+
+        assertThat(listEntries(cacheDir)).hasSize(1);
+    }
+
+    @Test
+    void evictsEntriesDespiteLockFileOfEarlierRun() throws IOException, MojoFailureException {
+        final Path cacheDir = tempDir.resolve("cache");
+        final Path file = createFile("Hello.java", "class Hello {}");
+        final ResultCache cache = createCache(cacheDir, 1 << 20);
+        cache.analyse("Tool", "fingerprint", List.of(file), record(new ArrayList<>(), List.of()));
+        // A process that crashed or was killed leaves its lock file behind.
+        final Path lockFile = Files.createFile(cacheDir.resolve("eviction.lock"));
+        Files.setLastModifiedTime(lockFile, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+
+        createCache(cacheDir, 1).evict();
+
+        assertThat(listEntries(cacheDir)).isEmpty();
+        assertThat(Files.getLastModifiedTime(lockFile).toInstant())
+            .isAfter(Instant.now().minus(Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void skipsEvictionWhileLockIsHeld() throws IOException, MojoFailureException {
+        final Path cacheDir = tempDir.resolve("cache");
+        final Path file = createFile("Hello.java", "class Hello {}");
+        final ResultCache cache = createCache(cacheDir, 1 << 20);
+        cache.analyse("Tool", "fingerprint", List.of(file), record(new ArrayList<>(), List.of()));
+        final Path lockFile = Files.createFile(cacheDir.resolve("eviction.lock"));
+        Files.setLastModifiedTime(lockFile, FileTime.from(Instant.now().minus(Duration.ofHours(1))));
+
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            createCache(cacheDir, 1).evict();
+        }
+
+        assertThat(listEntries(cacheDir)).hasSize(1);
+    }
+
+    @Test
+    void deletesAbandonedTemporaryFiles() throws IOException, MojoFailureException {
+        final Path cacheDir = tempDir.resolve("cache");
+        final Path file = createFile("Hello.java", "class Hello {}");
+        final ResultCache cache = createCache(cacheDir, 1 << 20);
+        cache.analyse("Tool", "fingerprint", List.of(file), record(new ArrayList<>(), List.of()));
+        final Path abandoned = Files.writeString(cacheDir.resolve("abandoned" + CacheFiles.TEMP_FILE_SUFFIX), "x");
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        final Path inProgress = Files.writeString(cacheDir.resolve("in-progress" + CacheFiles.TEMP_FILE_SUFFIX), "x");
+
+        cache.evict();
+
+        assertThat(abandoned).doesNotExist();
+        assertThat(inProgress).exists();
+    }
+
+    @Test
+    void analysesAllFilesIfDisabled() throws IOException, MojoFailureException {
+        final Path file = createFile("Hello.java", "class Hello {}");
+        final ResultCache cache = createCache(tempDir.resolve("cache"), 0);
+        final List<List<Path>> analysedFiles = new ArrayList<>();
+        cache.analyse("Tool", "fingerprint", List.of(file), record(analysedFiles, List.of()));
+
+        cache.analyse("Tool", "fingerprint", List.of(file), record(analysedFiles, List.of()));
+
+        assertThat(analysedFiles).containsExactly(List.of(file), List.of(file));
+        assertThat(tempDir.resolve("cache")).doesNotExist();
+    }
+
+    private Path createFile(final String name, final String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content);
+    }
+
+    private ResultCache createCache(final Path cacheDir, final long maxSize) {
+        return createCache(cacheDir, tempDir, maxSize);
+    }
+
+    private static ResultCache createCache(final Path cacheDir, final Path rootDir, final long maxSize) {
+        return new ResultCache(cacheDir, rootDir, maxSize, new SourceContents(), new RecordingLog());
+    }
+
+    private static ResultCache.Analysis record(final List<List<Path>> analysedFiles, final List<Issue> issues) {
+        return files -> {
+            analysedFiles.add(files);
+            return issues;
+        };
+    }
+
+    private static List<Path> listEntries(final Path cacheDir) throws IOException {
+        try (Stream<Path> paths = Files.walk(cacheDir)) {
+            return paths.filter(Files::isRegularFile)
+                .filter(path -> !path.getFileName().toString().equals("eviction.lock"))
+                .sorted()
+                .toList();
+        }
+    }
+
+}
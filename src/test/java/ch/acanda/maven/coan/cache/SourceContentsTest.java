@@ -0,0 +1,56 @@
+package ch.acanda.maven.coan.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SourceContentsTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void returnsHashAndTextOfFile() throws IOException {
+        final Path file = Files.writeString(tempDir.resolve("Hello.java"), "class Hello {}");
+        final SourceContents contents = new SourceContents();
+
+        assertThat(contents.hash(file)).isEqualTo(Hashes.hash(file));
+        assertThat(contents.text(file, StandardCharsets.UTF_8)).isEqualTo("class Hello {}");
+    }
+
+    @Test
+    void readsChangedFileAgain() throws IOException {
+        final Path file = Files.writeString(tempDir.resolve("Hello.java"), "class Hello {}");
+        final SourceContents contents = new SourceContents();
+        final String hash = contents.hash(file);
+
+        Files.writeString(file, "class Hello { }");
+
+        assertThat(contents.hash(file)).isNotEqualTo(hash).isEqualTo(Hashes.hash(file));
+        assertThat(contents.text(file, StandardCharsets.UTF_8)).isEqualTo("class Hello { }");
+    }
+
+    @Test
+    void refreshesHashWhenReclaimedContentIsReadAgain() throws IOException {
+        final Path file = Files.writeString(tempDir.resolve("Hello.java"), "class Hello {}");
+        final SourceContents contents = new SourceContents();
+        final String hash = contents.hash(file);
+        final FileTime lastModified = Files.getLastModifiedTime(file);
+        // The same size and modification time hide the change from the entry.
+        Files.writeString(file, "class Hallo {}");
+        Files.setLastModifiedTime(file, lastModified);
+
+        contents.releaseContents();
+
+        assertThat(contents.text(file, StandardCharsets.UTF_8)).isEqualTo("class Hallo {}");
+        assertThat(contents.hash(file)).isNotEqualTo(hash).isEqualTo(Hashes.hash(file));
+    }
+
+}
@@ -0,0 +1,67 @@
+package ch.acanda.maven.coan.cache;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.RecordingLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StoredInspectionsTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void returnsStoredInspectionsWithSameFingerprint() {
+        final MavenProject first = createProject("first");
+        final MavenProject second = createProject("second");
+        final Path file = tempDir.resolve("Hello.java");
+        final CachedIssue issue = new CachedIssue(file, 3, 7, "Rule", "Description", Issue.Severity.HIGH);
+        final List<Inspection> inspections = List.of(
+            new CachedInspection("PMD", first, List.of(issue)),
+            new CachedInspection("PMD", second, List.of())
+        );
+        final StoredInspections stored = new StoredInspections(tempDir, new RecordingLog());
+        stored.put("task", "fingerprint", List.of(first, second), inspections);
+
+        final Optional<List<Inspection>> actual = stored.get("task", "fingerprint", List.of(first, second));
+
+        assertThat(actual).contains(inspections);
+    }
+
+    @Test
+    void returnsNothingWithDifferentFingerprint() {
+        final MavenProject project = createProject("project");
+        final StoredInspections stored = new StoredInspections(tempDir, new RecordingLog());
+        stored.put("task", "fingerprint", List.of(project), List.of(new CachedInspection("PMD", project, List.of())));
+
+        final Optional<List<Inspection>> actual = stored.get("task", "other fingerprint", List.of(project));
+
+        assertThat(actual).isEmpty();
+    }
+
+    @Test
+    void returnsNothingForUnknownTask() {
+        final MavenProject project = createProject("project");
+        final StoredInspections stored = new StoredInspections(tempDir, new RecordingLog());
+        stored.put("task", "fingerprint", List.of(project), List.of(new CachedInspection("PMD", project, List.of())));
+
+        final Optional<List<Inspection>> actual = stored.get("other task", "fingerprint", List.of(project));
+
+        assertThat(actual).isEmpty();
+    }
+
+    private static MavenProject createProject(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId(artifactId);
+        return project;
+    }
+
+}
@@ -0,0 +1,141 @@
+package ch.acanda.maven.coan.checkstyle;
+
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.checkstyle.CheckerPool.PooledChecker;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckerPoolTest {
+
+    private static final String CONFIG = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <!DOCTYPE module PUBLIC "-//Puppy Crawl//DTD Check Configuration 1.3//EN"
+          "https://checkstyle.org/dtds/configuration_1_3.dtd">
+        <module name="Checker">
+          <property name="localeLanguage" value="en"/>
+          <module name="LineLength">
+            <property name="max" value="%d"/>
+          </module>
+        </module>
+        """;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void reusesReleasedCheckerForSameConfiguration() throws IOException, CheckstyleException {
+        final Path config = createConfig("checkstyle.xml", 30);
+        final Path otherConfig = createConfig("other-checkstyle.xml", 30);
+        final CheckerPool pool = new CheckerPool();
+        final PooledChecker checker = pool.borrow(config);
+        pool.release(checker, false);
+
+        final PooledChecker otherChecker = pool.borrow(otherConfig);
+        final PooledChecker sameChecker = pool.borrow(config);
+
+        assertThat(otherChecker).isNotSameAs(checker);
+        assertThat(sameChecker).isSameAs(checker);
+    }
+
+    @Test
+    void doesNotReuseFailedChecker() throws IOException, CheckstyleException {
+        final Path config = createConfig("checkstyle.xml", 30);
+        final CheckerPool pool = new CheckerPool();
+        final PooledChecker checker = pool.borrow(config);
+        pool.release(checker, true);
+
+        assertThat(pool.borrow(config)).isNotSameAs(checker);
+    }
+
+    @Test
+    void doesNotReuseCheckerOfChangedConfiguration() throws IOException, CheckstyleException {
+        final Path config = createConfig("checkstyle.xml", 30);
+        final CheckerPool pool = new CheckerPool();
+        final PooledChecker checker = pool.borrow(config);
+        pool.release(checker, false);
+        Files.writeString(config, CONFIG.formatted(40));
+        final Instant lastModified = Files.getLastModifiedTime(config).toInstant();
+        Files.setLastModifiedTime(config, FileTime.from(lastModified.plusSeconds(10)));
+
+        assertThat(pool.borrow(config)).isNotSameAs(checker);
+    }
+
+    @Test
+    void lendsCheckerToOneThreadAtATime() throws Exception {
+        final Path config = createConfig("checkstyle.xml", 30);
+        final List<File> files = List.of(createFile("A.java").toFile());
+        final CheckerPool pool = new CheckerPool();
+        final Set<PooledChecker> borrowed = Collections.synchronizedSet(Collections.newSetFromMap(
+            new IdentityHashMap<>()));
+        final AtomicBoolean shared = new AtomicBoolean();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(executor.submit(() -> {
+                    final PooledChecker checker = pool.borrow(config);
+                    if (!borrowed.add(checker)) {
+                        shared.set(true);
+                    }
+                    try {
+                        assertThat(checker.process(files)).hasSize(1);
+                    } finally {
+                        borrowed.remove(checker);
+                        pool.release(checker, false);
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> result : results) {
+                result.get();
+            }
+        }
+
+        assertThat(shared).isFalse();
+    }
+
+    @Test
+    void doesNotPassIssuesOnToNextInspection() throws IOException, CheckstyleException {
+        final Path config = createConfig("checkstyle.xml", 30);
+        final Path first = createFile("First.java");
+        final Path second = createFile("Second.java");
+        final CheckerPool pool = new CheckerPool();
+        final PooledChecker checker = pool.borrow(config);
+        checker.process(List.of(first.toFile()));
+        pool.release(checker, false);
+
+        final PooledChecker reused = pool.borrow(config);
+        final List<? extends Issue> issues = reused.process(List.of(second.toFile()));
+
+        assertThat(reused).isSameAs(checker);
+        assertThat(issues).extracting(Issue::file).containsExactly(second);
+    }
+
+    private Path createConfig(final String name, final int maxLineLength) throws IOException {
+        return Files.writeString(tempDir.resolve(name), CONFIG.formatted(maxLineLength));
+    }
+
+    private Path createFile(final String name) throws IOException {
+        final String className = name.substring(0, name.indexOf('.'));
+        return Files.writeString(tempDir.resolve(name), "class " + className + " { int aFieldWithAVeryLongName; }\n");
+    }
+
+}
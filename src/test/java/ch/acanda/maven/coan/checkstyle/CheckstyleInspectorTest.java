@@ -0,0 +1,130 @@
+package ch.acanda.maven.coan.checkstyle;
+
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.RecordingLog;
+import ch.acanda.maven.coan.cache.ResultCache;
+import ch.acanda.maven.coan.cache.SourceContents;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CheckstyleInspectorTest {
+
+    private static final String CONFIG = """
+        <?xml version="1.0" encoding="UTF-8"?>
+        <!DOCTYPE module PUBLIC "-//Puppy Crawl//DTD Check Configuration 1.3//EN"
+          "https://checkstyle.org/dtds/configuration_1_3.dtd">
+        <module name="Checker">
+          <property name="localeLanguage" value="en"/>
+          <module name="LineLength">
+            <property name="max" value="30"/>
+          </module>
+          %s
+        </module>
+        """;
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void findsSameIssuesInParallelAsSequentially() throws IOException, MojoFailureException {
+        final Path configPath = Files.writeString(tempDir.resolve("checkstyle.xml"), CONFIG.formatted(""));
+        final List<Path> files = createFiles(2, 30);
+
+        final List<String> sequential = inspect(configPath, files, 1);
+        final List<String> parallel = inspect(configPath, files, 3);
+
+        assertThat(parallel).hasSize(files.size()).isEqualTo(sequential);
+    }
+
+    @Test
+    void findsSameIssuesInParallelAsSequentiallyWithCrossFileChecks() throws IOException, MojoFailureException {
+        final String javadocPackage = "<module name=\"JavadocPackage\"/>";
+        final Path configPath = Files.writeString(tempDir.resolve("checkstyle.xml"), CONFIG.formatted(javadocPackage));
+        final List<Path> files = createFiles(2, 30);
+
+        final List<String> sequential = inspect(configPath, files, 1);
+        final List<String> parallel = inspect(configPath, files, 3);
+
+        assertThat(parallel).isEqualTo(sequential);
+        assertThat(parallel).filteredOn(issue -> issue.contains("JavadocPackage")).hasSize(2);
+    }
+
+    @Test
+    void doesNotReuseCachedIssuesWithCrossFileChecks() throws IOException, MojoFailureException {
+        final String javadocPackage = "<module name=\"JavadocPackage\"/>";
+        final Path configPath = Files.writeString(tempDir.resolve("checkstyle.xml"), CONFIG.formatted(javadocPackage));
+        final List<Path> files = createFiles(2, 2);
+        inspect(configPath, files, 1, 1_000_000);
+
+        final Path packageInfo = Files.writeString(tempDir.resolve("src/p0/package-info.java"), "package p0;\n");
+        final List<Path> filesWithPackageInfo = new ArrayList<>(files);
+        filesWithPackageInfo.add(packageInfo);
+        final List<String> cached = inspect(configPath, filesWithPackageInfo, 1, 1_000_000);
+
+        assertThat(cached).isEqualTo(inspect(configPath, filesWithPackageInfo, 1, 0));
+        assertThat(cached).filteredOn(issue -> issue.contains("JavadocPackage")).hasSize(1);
+    }
+
+    @Test
+    void detectsCrossFileChecks() throws IOException, MojoFailureException {
+        assertThat(hasCrossFileChecks("")).isFalse();
+        assertThat(hasCrossFileChecks("<module name=\"JavadocPackage\"/>")).isTrue();
+        assertThat(hasCrossFileChecks("<module name=\"UniquePropertiesCheck\"/>")).isTrue();
+        assertThat(hasCrossFileChecks("<module name=\"com.example.CustomCheck\"/>")).isTrue();
+    }
+
+    private boolean hasCrossFileChecks(final String modules) throws IOException, MojoFailureException {
+        final Path configPath = Files.writeString(tempDir.resolve("checkstyle.xml"), CONFIG.formatted(modules));
+        try {
+            return CheckstyleInspector.hasCrossFileChecks(new CheckerPool().getConfiguration(configPath));
+        } catch (final CheckstyleException e) {
+            throw new MojoFailureException("Failed to load configuration.", e);
+        }
+    }
+
+    private List<String> inspect(final Path configPath, final List<Path> files, final int threads)
+        throws MojoFailureException {
+        return inspect(configPath, files, threads, 0);
+    }
+
+    private List<String> inspect(final Path configPath, final List<Path> files, final int threads,
+        final long cacheSize) throws MojoFailureException {
+        final MavenProject project = new MavenProject();
+        project.setFile(tempDir.resolve("pom.xml").toFile());
+        final RecordingLog log = new RecordingLog();
+        final ResultCache cache =
+            new ResultCache(tempDir.resolve("cache"), tempDir, cacheSize, new SourceContents(), log);
+        final CheckstyleConfig config = new CheckstyleConfig(project, log, configPath.toString(),
+            tempDir.resolve("target").toString(), threads, cache, files);
+        final List<String> issues = new ArrayList<>();
+        for (final Issue issue : new CheckstyleInspector(config).inspect().issues()) {
+            issues.add(tempDir.relativize(issue.file()) + ":" + issue.line() + ":" + issue.column() + " "
+                       + issue.name());
+        }
+        return issues;
+    }
+
+    private List<Path> createFiles(final int packages, final int filesPerPackage) throws IOException {
+        final List<Path> files = new ArrayList<>();
+        for (int p = 0; p < packages; p++) {
+            final Path dir = Files.createDirectories(tempDir.resolve("src/p" + p));
+            for (int f = 0; f < filesPerPackage; f++) {
+                final String content = "package p" + p + ";\nclass C" + f + " { int aFieldWithAVeryLongName; }\n";
+                files.add(Files.writeString(dir.resolve("C" + f + ".java"), content));
+            }
+        }
+        return files;
+    }
+
+}
@@ -0,0 +1,78 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileGroupsTest {
+
+    private static final Path HELLO = Paths.get("src", "Hello.java");
+    private static final Path WORLD = Paths.get("src", "World.java");
+    private static final Path ZEBRA = Paths.get("src", "Zebra.java");
+
+    @Test
+    void groupsIssuesByFileInFileOrder() {
+        final List<Issue> issues = List.of(
+            issue(ZEBRA, 1),
+            issue(HELLO, 2),
+            issue(WORLD, 3),
+            issue(HELLO, 4),
+            issue(ZEBRA, 5),
+            issue(HELLO, 6)
+        );
+
+        final Map<Path, List<Integer>> groups = group(issues);
+
+        assertThat(groups.keySet()).containsExactly(HELLO, WORLD, ZEBRA);
+        assertThat(groups.get(HELLO)).containsExactly(2, 4, 6);
+        assertThat(groups.get(WORLD)).containsExactly(3);
+        assertThat(groups.get(ZEBRA)).containsExactly(1, 5);
+    }
+
+    @Test
+    void groupsIssuesOfIssueStore() {
+        final IssueStore issues = new IssueStore.Builder()
+            .add(issue(WORLD, 1))
+            .add(issue(HELLO, 2))
+            .add(issue(WORLD, 3))
+            .build();
+
+        final Map<Path, List<Integer>> groups = group(issues);
+
+        assertThat(groups).containsExactly(
+            Map.entry(HELLO, List.of(2)),
+            Map.entry(WORLD, List.of(1, 3))
+        );
+    }
+
+    @Test
+    void doesNotCallActionWithoutIssues() {
+        final Map<Path, List<Integer>> groups = group(List.of());
+
+        assertThat(groups).isEmpty();
+    }
+
+    private static Map<Path, List<Integer>> group(final List<? extends Issue> issues) {
+        final Map<Path, List<Integer>> groups = new LinkedHashMap<>();
+        FileGroups.forEach(issues, (file, fileIssues) -> {
+            final List<Integer> lines = new ArrayList<>();
+            fileIssues.forEach(issue -> lines.add(issue.line()));
+            groups.put(file, lines);
+        });
+        return groups;
+    }
+
+    private static Issue issue(final Path file, final int line) {
+        return new StubIssue(file, line, 0, "Name", "Description", Issue.Severity.MEDIUM);
+    }
+
+}
@@ -0,0 +1,43 @@
+package ch.acanda.maven.coan.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueFingerprintTest {
+
+    @Test
+    void createsNameBasedUuid() {
+        final IssueFingerprint fingerprint = new IssueFingerprint();
+
+        final String actual = fingerprint.of("IssueA", bytes("src/main/java/Hello.java"), 12, 0);
+
+        assertThat(actual).isEqualTo("64ca83ea-1e88-3657-8323-a931cde1f4e8");
+    }
+
+    @Test
+    void reusesDigestForSeveralIssues() {
+        final IssueFingerprint fingerprint = new IssueFingerprint();
+        final byte[] path = bytes("src/Wörld.java");
+
+        for (int line = 0; line < 100; line++) {
+            assertThat(fingerprint.of("Rule", path, line, -line)).isEqualTo(expected("Rule", path, line, -line));
+        }
+    }
+
+    private static String expected(final String name, final byte[] path, final int line, final int column) {
+        final byte[] nameBytes = bytes(name);
+        final ByteBuffer bytes = ByteBuffer.allocate(nameBytes.length + path.length + Integer.BYTES * 2)
+            .put(nameBytes).put(path).putInt(line).putInt(column);
+        return UUID.nameUUIDFromBytes(bytes.array()).toString();
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+}
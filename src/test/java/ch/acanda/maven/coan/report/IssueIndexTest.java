@@ -0,0 +1,98 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import ch.acanda.maven.coan.IssueStore;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IssueIndexTest {
+
+    private static final Path HELLO = Paths.get("src", "Hello.java");
+    private static final Path WORLD = Paths.get("src", "World.java");
+
+    @Test
+    void ordersIssuesByFileSeverityNameLineAndColumn() {
+        final Inspection inspection = new StubInspection("PMD", new IssueStore.Builder()
+            .add(issue(WORLD, 3, 1, "B", Issue.Severity.LOW))
+            .add(issue(HELLO, 9, 1, "B", Issue.Severity.HIGH))
+            .add(issue(HELLO, 2, 5, "A", Issue.Severity.HIGH))
+            .add(issue(HELLO, 2, 1, "A", Issue.Severity.HIGH))
+            .add(issue(HELLO, 1, 1, "C", Issue.Severity.HIGHEST))
+            .add(issue(WORLD, 1, 1, "A", Issue.Severity.LOW))
+            .build(), project("app"));
+
+        final List<String> actual = render(IssueIndex.of(inspection), inspection);
+
+        assertThat(actual).containsExactly(
+            "Hello.java C 1:1",
+            "Hello.java A 2:1",
+            "Hello.java A 2:5",
+            "Hello.java B 9:1",
+            "World.java A 1:1",
+            "World.java B 3:1"
+        );
+    }
+
+    @Test
+    void ordersIssuesWithoutRandomAccess() {
+        final List<Issue> issues = new LinkedList<>(List.of(
+            issue(HELLO, 9, 1, "B", Issue.Severity.HIGH),
+            issue(HELLO, 2, 1, "A", Issue.Severity.HIGH),
+            issue(WORLD, 1, 1, "A", Issue.Severity.LOW)
+        ));
+        final Inspection inspection = new StubInspection("PMD", issues, project("app"));
+
+        final List<String> actual = render(IssueIndex.of(inspection), inspection);
+
+        assertThat(actual).containsExactly("Hello.java A 2:1", "Hello.java B 9:1", "World.java A 1:1");
+    }
+
+    @Test
+    void groupsInspectionsByProjectAndCountsIssuesByTool() {
+        final MavenProject app = project("app");
+        final MavenProject lib = project("lib");
+        final Inspection libPmd = new StubInspection("PMD", List.of(issue(HELLO, 1, 1, "A", Issue.Severity.LOW)), lib);
+        final Inspection appPmd = new StubInspection("PMD", List.of(), app);
+        final Inspection appCheckstyle = new StubInspection("Checkstyle",
+            List.of(issue(HELLO, 1, 1, "A", Issue.Severity.LOW), issue(WORLD, 1, 1, "A", Issue.Severity.LOW)), app);
+
+        final IssueIndex index = IssueIndex.of(libPmd, appPmd, appCheckstyle);
+
+        assertThat(index.foundIssues()).isTrue();
+        assertThat(index.getNumberOfIssuesByTool()).containsExactly(Map.entry("Checkstyle", 2L), Map.entry("PMD", 1L));
+        assertThat(index.getProjectsWithIssues())
+            .extracting(IssueIndex.ProjectInspections::name)
+            .containsExactly("app", "lib");
+        assertThat(index.getProjectsWithIssues().get(0).inspections()).containsExactly(appCheckstyle);
+    }
+
+    private static List<String> render(final IssueIndex index, final Inspection inspection) {
+        final List<String> lines = new ArrayList<>();
+        index.forEachFile(inspection, (file, issues) -> issues.forEach(issue -> lines.add(
+            file.getFileName() + " " + issue.name() + " " + issue.line() + ":" + issue.column()
+        )));
+        return lines;
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId(artifactId);
+        return project;
+    }
+
+    private static Issue issue(final Path file, final int line, final int column, final String name,
+        final Issue.Severity severity) {
+        return new StubIssue(file, line, column, name, "Description", severity);
+    }
+
+}
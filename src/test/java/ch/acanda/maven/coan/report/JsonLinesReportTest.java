@@ -0,0 +1,54 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static net.javacrumbs.jsonunit.assertj.JsonAssertions.assertThatJson;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonLinesReportTest {
+
+    @Test
+    void writesOneObjectPerIssue(@TempDir final Path tempDir) throws MojoFailureException, IOException {
+        final Path baseDir = tempDir.resolve("baseDir");
+        final Path javaMain = baseDir.resolve("src").resolve("main").resolve("java");
+        final Path reportFile = tempDir.resolve("report.jsonl");
+        final JsonLinesReport report = new JsonLinesReport(baseDir,
+            new StubInspection("ABC", List.of(
+                new StubIssue(javaMain.resolve("Hello.java"), 12, 0, "IssueA", "Issue A", Issue.Severity.HIGHEST),
+                new StubIssue(javaMain.resolve("World.java"), 25, 3, "IssueB", "Say \"hi\"\n\\", Issue.Severity.LOW)
+            ), new MavenProject())
+        );
+
+        report.writeTo(reportFile);
+
+        final List<String> lines = Files.readAllLines(reportFile, UTF_8);
+        assertThat(lines).hasSize(2);
+        assertThatJson(lines.get(0)).isEqualTo(
+            """
+                {
+                  "tool": "ABC",
+                  "rule": "IssueA",
+                  "severity": "highest",
+                  "path": "src/main/java/Hello.java",
+                  "line": 12,
+                  "column": 0,
+                  "message": "Issue A",
+                  "fingerprint": "64ca83ea-1e88-3657-8323-a931cde1f4e8"
+                }
+                """
+        );
+        assertThatJson(lines.get(1)).inPath("message").isEqualTo("\"Say \\\"hi\\\"\\n\\\\\"");
+        assertThatJson(lines.get(1)).inPath("severity").isEqualTo("\"low\"");
+    }
+
+}
@@ -0,0 +1,88 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PagedHtmlReportTest {
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void writesIndexAndOnePagePerProjectToolAndFiles() throws MojoFailureException, IOException {
+        final Path reportDir = tempDir.resolve("report");
+        final MavenProject app = project("app");
+        final MavenProject lib = project("lib");
+        final Inspection appPmd = new StubInspection("PMD", List.of(
+            issue("Hello.java", "IssueA"),
+            issue("World.java", "IssueB"),
+            issue("Zebra.java", "IssueC")
+        ), app);
+        final Inspection libCheckstyle = new StubInspection("Checkstyle", List.of(issue("Lib.java", "IssueD")), lib);
+        final PagedHtmlReport report =
+            new PagedHtmlReport(project("root"), tempDir, IssueIndex.of(appPmd, libCheckstyle), 2);
+
+        final Path indexPage = report.writeTo(reportDir);
+
+        assertThat(indexPage).isEqualTo(reportDir.resolve("index.html"));
+        assertThat(pages(reportDir)).containsExactly(
+            "001-app-pmd-1.html",
+            "001-app-pmd-2.html",
+            "002-lib-checkstyle-1.html",
+            "index.html"
+        );
+        assertThat(Files.readString(indexPage, UTF_8))
+            .contains("<p>Checkstyle found 1 issue.</p>")
+            .contains("<p>PMD found 3 issues.</p>")
+            .contains("<a href=\"001-app-pmd-1.html\">1</a> <a href=\"001-app-pmd-2.html\">2</a>")
+            .contains("<a href=\"002-lib-checkstyle-1.html\">1</a>");
+        assertThat(Files.readString(reportDir.resolve("001-app-pmd-1.html"), UTF_8))
+            .contains("<h3>src/Hello.java</h3>", "<h3>src/World.java</h3>", "IssueA", "IssueB")
+            .doesNotContain("Zebra.java");
+        assertThat(Files.readString(reportDir.resolve("001-app-pmd-2.html"), UTF_8))
+            .contains("<h3>src/Zebra.java</h3>", "(page 2)", "<a href=\"index.html\">");
+    }
+
+    @Test
+    void deletesPagesOfPreviousReport() throws MojoFailureException, IOException {
+        final Path reportDir = tempDir.resolve("report");
+        Files.createDirectories(reportDir);
+        Files.writeString(reportDir.resolve("001-old-pmd-1.html"), "old");
+        final PagedHtmlReport report = new PagedHtmlReport(project("root"), tempDir, IssueIndex.of());
+
+        report.writeTo(reportDir);
+
+        assertThat(pages(reportDir)).containsExactly("index.html");
+        assertThat(Files.readString(reportDir.resolve("index.html"), UTF_8)).contains("Congratulations!");
+    }
+
+    private static List<String> pages(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId(artifactId);
+        return project;
+    }
+
+    private Issue issue(final String file, final String name) {
+        return new StubIssue(tempDir.resolve("src").resolve(file), 1, 1, name, "Description", Issue.Severity.HIGH);
+    }
+
+}
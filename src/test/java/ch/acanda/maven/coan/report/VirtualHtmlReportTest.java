@@ -0,0 +1,105 @@
+package ch.acanda.maven.coan.report;
+
+import ch.acanda.maven.coan.Inspection;
+import ch.acanda.maven.coan.Issue;
+import com.fasterxml.jackson.jr.ob.JSON;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualHtmlReportTest {
+
+    private static final String PAYLOAD_START = "<script id=\"issues\" type=\"application/json\">";
+
+    @TempDir
+    private Path tempDir;
+
+    @Test
+    void embedsIssuesWithDistinctTexts() throws MojoFailureException, IOException {
+        final MavenProject app = project("app");
+        final Inspection inspection = new StubInspection("PMD", List.of(
+            issue("World.java", 3, "IssueB", "Same", Issue.Severity.LOW),
+            issue("Hello.java", 7, "IssueA", "Same", Issue.Severity.HIGH),
+            issue("Hello.java", 2, "IssueA", "Other", Issue.Severity.HIGH)
+        ), app);
+        final Path reportFile = tempDir.resolve("report.virtual.html");
+
+        new VirtualHtmlReport(project("root"), tempDir, IssueIndex.of(inspection)).writeTo(reportFile);
+
+        final Map<String, Object> payload = payload(Files.readString(reportFile, UTF_8));
+        assertThat(payload.get("texts")).asList()
+            .containsExactly("app", "PMD", "src/Hello.java", "IssueA", "Other", "Same", "src/World.java", "IssueB");
+        assertThat(payload.get("issues")).asList().containsExactly(
+            0, 1, 2, 3, 1, 2, 1, 4,
+            0, 1, 2, 3, 1, 7, 1, 5,
+            0, 1, 6, 7, 3, 3, 1, 5
+        );
+        assertThat(payload.get("severities")).asList()
+            .containsExactly("highest", "high", "medium", "low", "lowest", "ignore");
+    }
+
+    @Test
+    void escapesTextsThatWouldEndThePayload() throws MojoFailureException, IOException {
+        final Inspection inspection = new StubInspection("PMD", List.of(
+            issue("Hello.java", 1, "IssueA", "Avoid </script> in \"strings\"", Issue.Severity.HIGH)
+        ), project("app"));
+        final Path reportFile = tempDir.resolve("report.virtual.html");
+
+        new VirtualHtmlReport(project("root"), tempDir, IssueIndex.of(inspection)).writeTo(reportFile);
+
+        final String html = Files.readString(reportFile, UTF_8);
+        assertThat(payload(html).get("texts")).asList().contains("Avoid </script> in \"strings\"");
+    }
+
+    @Test
+    void escapesTextsThatWouldTurnTheRestOfThePageIntoThePayload() throws MojoFailureException, IOException {
+        final String description = "Remove <!-- <script> from the comment";
+        final Inspection inspection = new StubInspection("PMD", List.of(
+            issue("Hello.java", 1, "IssueA", description, Issue.Severity.HIGH)
+        ), project("app"));
+        final Path reportFile = tempDir.resolve("report.virtual.html");
+
+        new VirtualHtmlReport(project("root"), tempDir, IssueIndex.of(inspection)).writeTo(reportFile);
+
+        final String html = Files.readString(reportFile, UTF_8);
+        final int start = html.indexOf(PAYLOAD_START) + PAYLOAD_START.length();
+        assertThat(html.substring(start, html.indexOf("</script>", start))).doesNotContain("<");
+        assertThat(payload(html).get("texts")).asList().contains(description);
+    }
+
+    @Test
+    void congratulatesWithoutIssues() throws MojoFailureException, IOException {
+        final Path reportFile = tempDir.resolve("report.virtual.html");
+
+        new VirtualHtmlReport(project("root"), tempDir, IssueIndex.of()).writeTo(reportFile);
+
+        assertThat(Files.readString(reportFile, UTF_8)).contains("Congratulations!").doesNotContain(PAYLOAD_START);
+    }
+
+    private static Map<String, Object> payload(final String html) throws IOException {
+        final int start = html.indexOf(PAYLOAD_START) + PAYLOAD_START.length();
+        return JSON.std.mapFrom(html.substring(start, html.indexOf("</script>", start)));
+    }
+
+    private static MavenProject project(final String artifactId) {
+        final MavenProject project = new MavenProject();
+        project.setArtifactId(artifactId);
+        return project;
+    }
+
+    private Issue issue(final String file, final int line, final String name, final String description,
+        final Issue.Severity severity) {
+        return new StubIssue(tempDir.resolve("src").resolve(file), line, 1, name, description, severity);
+    }
+
+}
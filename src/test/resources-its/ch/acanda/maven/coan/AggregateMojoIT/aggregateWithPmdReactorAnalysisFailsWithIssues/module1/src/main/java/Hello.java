@@ -0,0 +1,5 @@
+public class Hello extends Object {
+    public static void main(final String... args) {
+        System.out.println("Hello");
+    }
+}
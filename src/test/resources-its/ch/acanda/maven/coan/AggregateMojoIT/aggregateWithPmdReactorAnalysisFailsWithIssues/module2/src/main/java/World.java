@@ -0,0 +1,5 @@
+public class World extends Object {
+    public static void main(final String... args) {
+        System.out.println("World");
+    }
+}